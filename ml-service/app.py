@@ -2,6 +2,7 @@ from flask import Flask, request, jsonify
 from flask_cors import CORS
 import ml_logic
 import os
+import base64
 
 app = Flask(__name__)
 CORS(app)  # Enable CORS for Spring Boot backend
@@ -19,7 +20,8 @@ def index():
             "analyze": "/api/ml/analyze",
             "extract_skills": "/api/ml/extract-skills",
             "batch_analyze": "/api/ml/batch-analyze",
-            "recommend_courses": "/api/ml/recommend-courses"
+            "recommend_courses": "/api/ml/recommend-courses",
+            "embed": "/api/ml/embed"
         },
         "message": "Service is live and ready for production."
     }), 200
@@ -123,6 +125,8 @@ def batch_analyze():
         data = request.json
         job_id = data.get('jobId')
         applications = data.get('applications', [])
+        # Micro-batched single matches from the backend need the same fields /api/ml/analyze returns
+        include_details = bool(data.get('includeDetails', False))
         
         if not applications:
             return jsonify({"error": "No applications provided"}), 400
@@ -135,12 +139,22 @@ def batch_analyze():
             
             if resume_text and job_description:
                 analysis = ml_logic.analyze_resume_job_match(resume_text, job_description)
-                results.append({
+                missing = analysis["missing_technical_skills"] + analysis["missing_soft_skills"]
+                entry = {
                     "applicationId": app.get('applicationId'),
                     "matchScore": analysis["match_percentage"],
-                    "missingSkills": analysis["missing_technical_skills"] + analysis["missing_soft_skills"],
+                    "missingSkills": missing,
                     "rank": 0  # Will be set after sorting
-                })
+                }
+                if include_details:
+                    entry.update({
+                        "skillsMatched": analysis["matched_skills"],
+                        "skillsGap": missing,
+                        "experienceMatch": "Good" if analysis["match_percentage"] >= 70 else "Fair" if analysis["match_percentage"] >= 50 else "Poor",
+                        "confidence": analysis["semantic_score"] / 100,
+                        "predictedRole": ml_logic.predict_job_role(resume_text)
+                    })
+                results.append(entry)
         
         # Sort by match score and assign ranks
         results.sort(key=lambda x: x["matchScore"], reverse=True)
@@ -208,6 +222,25 @@ def matrix_analyze():
         traceback.print_exc()
         return jsonify({"error": str(e)}), 500
 
+@app.route('/api/ml/embed', methods=['POST'])
+def embed():
+    """Sentence embeddings as base64 little-endian float32, unit length"""
+    try:
+        data = request.json
+        texts = data.get('texts', [])
+
+        if not texts:
+            return jsonify({"error": "No texts provided"}), 400
+
+        vectors = ml_logic.embed_texts([t or '' for t in texts])
+        return jsonify({
+            "model": "all-MiniLM-L6-v2",
+            "dimension": int(vectors.shape[1]),
+            "embeddings": [base64.b64encode(v.tobytes()).decode('ascii') for v in vectors]
+        }), 200
+    except Exception as e:
+        return jsonify({"error": str(e)}), 500
+
 if __name__ == '__main__':
     print("🚀 ML Service starting on http://localhost:5000")
     print("📊 Endpoints available:")
@@ -217,6 +250,7 @@ if __name__ == '__main__':
     print("  - POST /api/ml/recommend-courses")
     print("  - POST /api/ml/batch-analyze")
     print("  - POST /api/ml/matrix-analyze")
+    print("  - POST /api/ml/embed")
     print("✅ Using real ML model (SentenceTransformer)")
     port = int(os.environ.get('PORT', 5000))
     app.run(host='0.0.0.0', port=port, debug=False)
\ No newline at end of file
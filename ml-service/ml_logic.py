@@ -284,6 +284,19 @@ def analyze_resume_job_match(resume_text, job_description):
         "missing_soft_skills": missing_soft
     }
 
+def embed_texts(texts):
+    """
+    Unit-length float32 embeddings for a list of texts. The backend stores them per
+    document and computes cosine matrices itself, so each text is encoded only once.
+    """
+    global model
+    if model is None:
+        model = SentenceTransformer('all-MiniLM-L6-v2')
+
+    with torch.no_grad():
+        vectors = model.encode(texts, convert_to_numpy=True, normalize_embeddings=True, batch_size=4)
+    return vectors.astype('<f4')
+
 def analyze_matrix_match(resume_texts, jd_texts):
     """
     Optimized M x N matrix match using vectorized PyTorch operations.
@@ -0,0 +1,121 @@
+package com.smartresume.config;
+
+import com.smartresume.service.MLTrafficGovernor;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+
+/**
+ * Single outbound HTTP layer: one pooled, keep-alive Apache HttpClient shared by every RestTemplate,
+ * so ML, email and self-ping calls reuse TLS connections instead of handshaking per request.
+ * The ML host gets its own per-route connection limit and timeouts, everything else the defaults.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Value("${ml.service.url:http://localhost:5000}")
+    private String mlServiceUrl;
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager httpConnectionManager(
+            @Value("${http.client.max-total:100}") int maxTotal,
+            @Value("${http.client.max-per-route:20}") int maxPerRoute,
+            @Value("${http.client.connect-timeout-ms:10000}") long connectTimeoutMs,
+            @Value("${http.client.ttl-seconds:300}") long ttlSeconds,
+            @Value("${ml.client.max-connections:32}") int mlMaxConnections,
+            @Value("${ml.client.connect-timeout-ms:30000}") long mlConnectTimeoutMs) {
+        ConnectionConfig defaults = connectionConfig(connectTimeoutMs, ttlSeconds);
+        ConnectionConfig ml = connectionConfig(mlConnectTimeoutMs, ttlSeconds);
+        HttpRoute mlRoute = mlRoute();
+
+        PoolingHttpClientConnectionManager manager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(Math.max(maxTotal, mlMaxConnections))
+                .setMaxConnPerRoute(maxPerRoute)
+                .build();
+        manager.setConnectionConfigResolver(route -> route.getTargetHost().equals(mlRoute.getTargetHost()) ? ml : defaults);
+        // Batch screening fans out to the ML service, so it may hold more connections than any other host
+        manager.setMaxPerRoute(mlRoute, mlMaxConnections);
+        return manager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager httpConnectionManager,
+                                          @Value("${http.client.idle-evict-seconds:30}") long idleEvictSeconds) {
+        return HttpClients.custom()
+                .setConnectionManager(httpConnectionManager)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(idleEvictSeconds))
+                .build();
+    }
+
+    /**
+     * General-purpose client for email, self-ping and other third-party calls.
+     */
+    @Bean
+    @Primary
+    public RestTemplate restTemplate(CloseableHttpClient httpClient,
+                                     @Value("${http.client.read-timeout-ms:30000}") long readTimeoutMs,
+                                     @Value("${http.client.connection-request-timeout-ms:10000}") long leaseTimeoutMs) {
+        return new RestTemplate(requestFactory(httpClient, readTimeoutMs, leaseTimeoutMs));
+    }
+
+    /**
+     * Client for the ML service; the long read timeout covers Hugging Face / Render cold starts.
+     * Every call goes through the shared {@link MLTrafficGovernor}, which also retries throttled requests.
+     */
+    @Bean
+    public RestTemplate mlRestTemplate(CloseableHttpClient httpClient, MLTrafficGovernor mlTrafficGovernor,
+                                       @Value("${ml.client.read-timeout-ms:90000}") long readTimeoutMs,
+                                       @Value("${ml.client.connection-request-timeout-ms:30000}") long leaseTimeoutMs) {
+        RestTemplate template = new RestTemplate(requestFactory(httpClient, readTimeoutMs, leaseTimeoutMs));
+        template.getInterceptors().add(mlTrafficGovernor);
+        return template;
+    }
+
+    private static HttpComponentsClientHttpRequestFactory requestFactory(CloseableHttpClient httpClient, long readTimeoutMs, long leaseTimeoutMs) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(leaseTimeoutMs))
+                .build();
+        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        // Per-template timeouts on the shared client: each request carries its own RequestConfig
+        factory.setHttpContextFactory((method, uri) -> {
+            HttpClientContext context = HttpClientContext.create();
+            context.setRequestConfig(requestConfig);
+            return context;
+        });
+        return factory;
+    }
+
+    private static ConnectionConfig connectionConfig(long connectTimeoutMs, long ttlSeconds) {
+        return ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                // Free-tier hosts drop idle connections silently; re-check before reusing an idle one
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                .setTimeToLive(TimeValue.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    private HttpRoute mlRoute() {
+        URI uri = URI.create(mlServiceUrl);
+        boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+        int port = uri.getPort() != -1 ? uri.getPort() : (secure ? 443 : 80);
+        return new HttpRoute(new HttpHost(uri.getScheme(), uri.getHost(), port), null, secure);
+    }
+}
@@ -1,6 +1,7 @@
 package com.smartresume.config;
 
 import com.smartresume.security.JwtFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -38,6 +39,9 @@ public class SecurityConfig {
                                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                                 .authorizeHttpRequests(auth -> auth
 
+                                                // Async re-dispatches (SSE streams) were already authorized on the original request
+                                                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                                                 // PUBLIC ENDPOINTS
                                                 .requestMatchers(
                                                                 "/actuator/**",
@@ -1,17 +1,24 @@
 package com.smartresume.controller;
 
 import com.smartresume.service.ResumeService;
+import com.smartresume.service.PdfTextExtractor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import com.smartresume.model.BatchJob;
 import com.smartresume.repository.BatchJobRepository;
+import com.smartresume.service.BatchLeaderboard;
 import com.smartresume.service.BatchProcessingService;
+import com.smartresume.service.BatchProgressHub;
+import com.smartresume.service.BatchResultStore;
+import com.smartresume.service.ResumeParser;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import com.smartresume.model.User;
 import com.smartresume.model.ResumeMeta;
 
@@ -31,7 +38,22 @@ public class EnterpriseController {
 
     @Autowired
     private BatchProcessingService batchProcessingService;
-    private final RestTemplate restTemplate;
+
+    @Autowired
+    private BatchResultStore batchResultStore;
+
+    @Autowired
+    private BatchProgressHub batchProgressHub;
+
+    @Autowired
+    private BatchLeaderboard batchLeaderboard;
+
+    @Autowired
+    private ResumeParser resumeParser;
+
+    @Autowired
+    @Qualifier("mlRestTemplate")
+    private RestTemplate restTemplate;
 
     @Value("${ml.service.url:http://localhost:5000}")
     private String mlServiceUrl;
@@ -77,80 +99,20 @@ public class EnterpriseController {
                 allSkills += (allSkills.isEmpty() ? "" : ", ") + String.join(", ", softSkills);
             }
 
-            // Heuristically extract a title from the first non-empty line
-            String[] lines = extractedText.split("\n");
-            String title = "Parsed Job Title";
-            for (String line : lines) {
-                String t = line.trim();
-                if (!t.isEmpty() && !t.toLowerCase().contains("company:") && !t.toLowerCase().contains("location:")) {
-                    title = t;
-                    break;
-                }
-            }
-            if (title.length() > 100) title = title.substring(0, 100);
-
-            String company = extractRegex(extractedText, "(?i)Company:\\s*(.+)");
-            String location = extractRegex(extractedText, "(?i)Location:\\s*(.+)");
-            String jobType = extractRegex(extractedText, "(?i)Job Type:\\s*(.+)");
-            String salary = extractRegex(extractedText, "(?i)Salary Range:\\s*(.+)");
-
-            String description = "";
-            String reqs = "";
-            int descIdx = extractedText.toLowerCase().indexOf("job description");
-            if (descIdx == -1) descIdx = extractedText.toLowerCase().indexOf("role summary");
-            
-            int reqIdx = extractedText.toLowerCase().indexOf("requirements");
-            if (reqIdx == -1) reqIdx = extractedText.toLowerCase().indexOf("qualifications");
-            if (reqIdx == -1) reqIdx = extractedText.toLowerCase().indexOf("skills");
-            
-            if (descIdx != -1 && reqIdx != -1 && reqIdx > descIdx) {
-                int descEndLine = extractedText.indexOf("\n", descIdx);
-                int reqEndLine = extractedText.indexOf("\n", reqIdx);
-                description = extractedText.substring(descEndLine != -1 ? descEndLine : descIdx + 15, reqIdx).trim();
-                reqs = extractedText.substring(reqEndLine != -1 ? reqEndLine : reqIdx + 12).trim();
-            } else if (descIdx != -1) {
-                int descEndLine = extractedText.indexOf("\n", descIdx);
-                description = extractedText.substring(descEndLine != -1 ? descEndLine : descIdx + 15).trim();
-                reqs = allSkills;
-            } else if (reqIdx != -1) {
-                int reqEndLine = extractedText.indexOf("\n", reqIdx);
-                description = extractedText.substring(0, reqIdx).trim();
-                reqs = extractedText.substring(reqEndLine != -1 ? reqEndLine : reqIdx + 12).trim();
-            } else {
-                description = extractedText;
-                reqs = allSkills;
-            }
-
-            if ((reqs == null || reqs.isEmpty()) && (allSkills == null || allSkills.isEmpty())) {
-                java.util.List<String> foundSkills = new java.util.ArrayList<>();
-                String[] techKeywords = {
-                    "java", "python", "react", "javascript", "spring", "node", "aws", "sql", "html", "css", 
-                    "c++", "angular", "docker", "kubernetes", "git", "typescript", "c#", "ruby", "go", 
-                    "mongodb", "redis", "postgresql", "mysql", "azure", "gcp", "linux", "jenkins", "ci/cd", 
-                    "machine learning", "tensorflow", "pytorch", "django", "flask", "vue", "next.js", 
-                    "express", "hibernate", "graphql", "rest api", "microservices", "agile", "scrum"
-                };
-                for (String kw : techKeywords) {
-                    if (extractedText.toLowerCase().contains(kw) || extractedText.toLowerCase().contains(kw.replace(" ", ""))) {
-                        if (kw.equals("aws") || kw.equals("sql") || kw.equals("gcp") || kw.equals("ci/cd")) {
-                            foundSkills.add(kw.toUpperCase());
-                        } else if (kw.equals("c++") || kw.equals("c#") || kw.equals("html") || kw.equals("css")) {
-                            foundSkills.add(kw.toUpperCase());
-                        } else {
-                            foundSkills.add(kw.substring(0, 1).toUpperCase() + kw.substring(1));
-                        }
-                    }
-                }
-                reqs = String.join(", ", foundSkills);
+            // Title, labelled fields and sections in one pass over the text
+            ResumeParser.JobDescriptionFields jd = resumeParser.parseJobDescription(extractedText);
+            String reqs = jd.requirements();
+            if (reqs.isEmpty() && allSkills.isEmpty()) {
+                reqs = String.join(", ", jd.skills());
             }
 
             Map<String, Object> result = new HashMap<>();
-            result.put("jobTitle", title);
-            result.put("company", company);
-            result.put("location", location);
-            result.put("jobType", jobType);
-            result.put("salary", salary);
-            result.put("description", description);
+            result.put("jobTitle", jd.jobTitle());
+            result.put("company", jd.company());
+            result.put("location", jd.location());
+            result.put("jobType", jd.jobType());
+            result.put("salary", jd.salary());
+            result.put("description", jd.description());
             result.put("requirements", reqs.isEmpty() ? allSkills : reqs);
 
             return ResponseEntity.ok(result);
@@ -176,13 +138,14 @@ public class EnterpriseController {
             // Create Batch Job
             BatchJob job = new BatchJob();
             job.setStatus("PROCESSING");
+            job.setCreatedAt(java.time.LocalDateTime.now());
             job.setTotalResumes(resumes.length);
             job.setProcessedResumes(0);
             batchJobRepository.save(job);
 
             // 1. Parse JD synchronously to extract text
             ResumeMeta jdMeta = resumeService.store(jdFile, systemUser, "JD_DOC");
-            String jdText = resumeService.extractTextFromResume(jdMeta.getId());
+            String jdText = resumeService.extractTextFromResume(jdMeta.getId(), PdfTextExtractor.Strategy.PAGE_PARALLEL);
 
             // 2. Store all resumes synchronously to prevent temp file destruction
             List<String> resumeIds = new ArrayList<>();
@@ -196,7 +159,7 @@ public class EnterpriseController {
                 resumeIds.add(resMeta.getId());
             }
 
-            // 3. Fire the Async Background Worker
+            // 3. Queue the chunks; BatchChunkWorker scores them in the background
             batchProcessingService.processBatch(job.getId(), jdText, resumeIds, candidateNames);
 
             // 4. Return immediately to the frontend
@@ -226,6 +189,7 @@ public class EnterpriseController {
 
             BatchJob job = new BatchJob();
             job.setStatus("PROCESSING");
+            job.setCreatedAt(java.time.LocalDateTime.now());
             job.setTotalResumes(resumes.length);
             job.setTotalJds(jdFiles.length);
             job.setProcessedResumes(0);
@@ -293,9 +257,13 @@ public class EnterpriseController {
             job.setTotalJds(totalJds != null ? totalJds.intValue() : 0);
             
             job.setJds((List<Map<String, String>>) mockJobMap.get("jds"));
-            job.setResults((List<Map<String, Object>>) mockJobMap.get("results"));
             
             batchJobRepository.save(job);
+
+            List<Map<String, Object>> results = (List<Map<String, Object>>) mockJobMap.get("results");
+            if (results != null) {
+                batchResultStore.write(job.getId(), 0, results);
+            }
             
             return ResponseEntity.ok(Map.of("status", "SAVED", "batchId", job.getId()));
         } catch (Exception e) {
@@ -348,11 +316,12 @@ public class EnterpriseController {
 
             BatchJob job = new BatchJob();
             job.setStatus("PROCESSING");
+            job.setCreatedAt(java.time.LocalDateTime.now());
             job.setTotalResumes(resumeTexts.size());
             job.setProcessedResumes(0);
             batchJobRepository.save(job);
 
-            // Fire async processing
+            // Queue the chunks for background processing
             batchProcessingService.processTextBatch(job.getId(), jdText, resumeTexts);
 
             return ResponseEntity.accepted().body(Map.of(
@@ -384,12 +353,13 @@ public class EnterpriseController {
 
             BatchJob job = new BatchJob();
             job.setStatus("PROCESSING");
+            job.setCreatedAt(java.time.LocalDateTime.now());
             job.setTotalResumes(resumeTexts.size());
             job.setTotalJds(jdTexts.size());
             job.setProcessedResumes(0);
             batchJobRepository.save(job);
 
-            // Fire async processing
+            // Queue the chunks for background processing
             batchProcessingService.processTextPlacementBatch(job.getId(), jdTexts, resumeTexts);
 
             return ResponseEntity.accepted().body(Map.of(
@@ -404,21 +374,81 @@ public class EnterpriseController {
         }
     }
 
+    /**
+     * Batch progress: counters and JD names only. Rows are served by /batch/{batchId}/results.
+     */
     @GetMapping("/batch/{batchId}")
     public ResponseEntity<?> getBatchStatus(@PathVariable String batchId) {
-        BatchJob job = batchJobRepository.findById(batchId).orElse(null);
+        BatchJob job = batchProgressHub.snapshot(batchId);
         if (job == null) {
             return ResponseEntity.status(404).body(Map.of("error", "Batch not found"));
         }
-        return ResponseEntity.ok(job);
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("id", job.getId());
+        status.put("status", job.getStatus());
+        status.put("kind", job.getKind());
+        status.put("totalResumes", job.getTotalResumes());
+        status.put("processedResumes", job.getProcessedResumes());
+        status.put("totalJds", job.getTotalJds());
+        status.put("totalChunks", job.getTotalChunks());
+        status.put("jds", job.getJds());
+        return ResponseEntity.ok(status);
     }
 
-    private String extractRegex(String text, String regex) {
-        java.util.regex.Matcher m = java.util.regex.Pattern.compile(regex).matcher(text);
-        if (m.find()) {
-            return m.group(1).trim();
+    /**
+     * Batch progress as server-sent events: "progress" (counters and status) whenever a chunk finishes,
+     * "chunk" (that chunk's result rows), and a final "progress" with COMPLETED or FAILED.
+     */
+    @GetMapping(value = "/batch/{batchId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBatch(@PathVariable String batchId) {
+        return batchProgressHub.subscribe(batchId);
+    }
+
+    /**
+     * Live leaderboard, available while the batch is still running: the current top n candidates of a
+     * batch screening, or the current top n per JD of a placement batch (jdId picks a single JD).
+     */
+    @GetMapping("/batch/{batchId}/leaderboard")
+    public ResponseEntity<?> getBatchLeaderboard(@PathVariable String batchId,
+                                                 @RequestParam(defaultValue = "10") int n,
+                                                 @RequestParam(required = false) String jdId) {
+        BatchJob job = batchProgressHub.snapshot(batchId);
+        if (job == null) {
+            return ResponseEntity.status(404).body(Map.of("error", "Batch not found"));
         }
-        return "";
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("batchId", batchId);
+        body.put("status", job.getStatus());
+        body.put("processedResumes", job.getProcessedResumes());
+        body.put("totalResumes", job.getTotalResumes());
+        if ("PLACEMENT".equals(job.getKind())) {
+            body.put("leadersByJd", batchLeaderboard.topByJd(job, jdId, Math.max(1, n)));
+        } else {
+            body.put("leaders", batchLeaderboard.top(job, Math.max(1, n)));
+        }
+        return ResponseEntity.ok(body);
     }
-}
 
+    /**
+     * Batch results, best score first (placement rows rank by their best JD match).
+     * size is capped at batch.results.max-page-size.
+     */
+    @GetMapping("/batch/{batchId}/results")
+    public ResponseEntity<?> getBatchResults(@PathVariable String batchId,
+                                             @RequestParam(defaultValue = "0") int page,
+                                             @RequestParam(defaultValue = "50") int size) {
+        BatchJob job = batchJobRepository.findById(batchId).orElse(null);
+        if (job == null) {
+            return ResponseEntity.status(404).body(Map.of("error", "Batch not found"));
+        }
+        BatchResultStore.Page results = batchResultStore.page(job, page, size);
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("batchId", batchId);
+        body.put("status", job.getStatus());
+        body.put("page", results.page());
+        body.put("size", results.size());
+        body.put("total", results.total());
+        body.put("results", results.rows());
+        return ResponseEntity.ok(body);
+    }
+}
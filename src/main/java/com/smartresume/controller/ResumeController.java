@@ -1,21 +1,35 @@
 package com.smartresume.controller;
 
+import com.smartresume.model.ExtractionResult;
+import com.smartresume.model.ParseTask;
 import com.smartresume.model.ResumeMeta;
 import com.smartresume.model.User;
 import com.smartresume.repository.UserRepository;
-import com.smartresume.service.MLIntegrationService;
+import com.smartresume.service.ResumeParsePipeline;
 import com.smartresume.service.ResumeService;
+import com.smartresume.util.LimitedInputStream;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.data.mongodb.gridfs.GridFsResource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.InputStream;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 
@@ -25,7 +39,7 @@ import java.util.NoSuchElementException;
 public class ResumeController {
     private final ResumeService resumeService;
     private final UserRepository userRepository;
-    private final MLIntegrationService mlIntegrationService;
+    private final ResumeParsePipeline resumeParsePipeline;
     private final com.smartresume.repository.ResumeRepository resumeRepository;
 
     @PostMapping("/upload")
@@ -45,178 +59,32 @@ public class ResumeController {
         if ("RESUME".equalsIgnoreCase(fileType)) {
             user.setResumeUploaded(true);
             userRepository.save(user);
-            try {
-                String resumeText = resumeService.extractTextFromResume(meta.getId());
-                Map<String, Object> mlData = null;
-                try {
-                    mlData = mlIntegrationService.extractSkills(resumeText);
-                } catch (Exception mlEx) {
-                    System.err.println("ML Service failed or unreachable. Falling back to Java parser: " + mlEx.getMessage());
-                }
-                
-                Map<String, Object> extracted = (mlData != null) ? mlData : new HashMap<>();
-                
-                String lower = resumeText.toLowerCase();
-                
-                // 1. Comprehensive Skills Extraction
-                java.util.List<String> foundSkills = new java.util.ArrayList<>();
-                String[] techKeywords = {
-                    "java", "python", "react", "javascript", "spring", "node", "aws", "sql", "html", "css", 
-                    "c++", "angular", "docker", "kubernetes", "git", "typescript", "c#", "ruby", "go", 
-                    "mongodb", "redis", "postgresql", "mysql", "azure", "gcp", "linux", "jenkins", "ci/cd", 
-                    "machine learning", "tensorflow", "pytorch", "django", "flask", "vue", "next.js", 
-                    "express", "hibernate", "graphql", "rest api", "microservices", "agile", "scrum"
-                };
-                for (String kw : techKeywords) {
-                    if (lower.contains(kw) || lower.contains(kw.replace(" ", ""))) {
-                        if (kw.equals("aws") || kw.equals("sql") || kw.equals("gcp") || kw.equals("ci/cd")) {
-                            foundSkills.add(kw.toUpperCase());
-                        } else if (kw.equals("c++") || kw.equals("c#") || kw.equals("html") || kw.equals("css")) {
-                            foundSkills.add(kw.toUpperCase());
-                        } else {
-                            foundSkills.add(kw.substring(0, 1).toUpperCase() + kw.substring(1));
-                        }
-                    }
-                }
-                // Override ML skills if Java found more
-                if (!extracted.containsKey("technicalSkills") || foundSkills.size() > 2) {
-                    extracted.put("technicalSkills", foundSkills);
-                }
-                
-                // 2. Experience Extraction
-                java.util.regex.Matcher mExp = java.util.regex.Pattern.compile("(\\d+)\\+?\\s*years?").matcher(lower);
-                if (mExp.find()) {
-                    extracted.put("experience", mExp.group(1) + " years");
-                } else if (!extracted.containsKey("experience")) {
-                    extracted.put("experience", "Not specified");
-                }
-                
-                // 3. GitHub & LinkedIn Links
-                java.util.regex.Matcher mGit = java.util.regex.Pattern.compile("github\\.com/([\\w-]+)").matcher(lower);
-                if (mGit.find()) {
-                    extracted.put("github", "https://github.com/" + mGit.group(1));
-                }
-                
-                java.util.regex.Matcher mLink = java.util.regex.Pattern.compile("linkedin\\.com/in/([\\w-]+)").matcher(lower);
-                if (mLink.find()) {
-                    extracted.put("linkedin", "https://linkedin.com/in/" + mLink.group(1));
-                }
-                
-                // 4. Education Extraction
-                java.util.List<String> foundEd = new java.util.ArrayList<>();
-                if (lower.contains("b.tech") || lower.contains("bachelor of technology") || lower.contains("b.e.")) foundEd.add("B.Tech / B.E.");
-                else if (lower.contains("b.s.") || lower.contains("bachelor of science")) foundEd.add("B.S.");
-                else if (lower.contains("b.a.") || lower.contains("bachelor of arts")) foundEd.add("B.A.");
-                else if (lower.contains("bachelor") || lower.contains("degree")) foundEd.add("Bachelor's Degree");
-                
-                if (lower.contains("m.tech") || lower.contains("master of technology")) foundEd.add("M.Tech");
-                else if (lower.contains("m.s.") || lower.contains("master of science")) foundEd.add("M.S.");
-                else if (lower.contains("master")) foundEd.add("Master's Degree");
-                
-                java.util.regex.Matcher mUni = java.util.regex.Pattern.compile("([a-zA-Z\\s]+(?:university|college|institute|academy))", java.util.regex.Pattern.CASE_INSENSITIVE).matcher(resumeText);
-                String institution = "University / College";
-                if (mUni.find()) {
-                    String uni = mUni.group(1).trim();
-                    if (uni.length() < 60) {
-                        institution = uni.replaceAll("\\n", " ").trim();
-                    }
-                }
-                if (foundEd.isEmpty() && !institution.equals("University / College")) {
-                    foundEd.add("Degree"); // If we found a university but no degree name
-                }
-                if (!foundEd.isEmpty() || !institution.equals("University / College")) {
-                    extracted.put("educationDegree", foundEd.isEmpty() ? "Degree" : foundEd.get(0));
-                    extracted.put("educationInstitution", institution);
-                }
-                
-                // 5. Projects
-                java.util.List<String> foundProj = new java.util.ArrayList<>();
-                java.util.regex.Matcher mProj = java.util.regex.Pattern.compile("(?i)project[s]?:?\\s*([\\s\\S]{10,300}?)(?=\\n\\n|education|experience|skills|$)").matcher(resumeText);
-                if (mProj.find()) {
-                    String pText = mProj.group(1).trim();
-                    String[] pLines = pText.split("\\n");
-                    for (String pl : pLines) {
-                        String clean = pl.replaceAll("^[-*•]\\s*", "").trim();
-                        if (clean.length() > 15 && clean.length() < 120) {
-                            foundProj.add(clean);
-                        }
-                    }
-                }
-                if (foundProj.isEmpty()) {
-                    // Aggressive fallback for projects
-                    java.util.regex.Matcher mProj2 = java.util.regex.Pattern.compile("(?i)(?:built|developed|created|designed|implemented).*?([a-zA-Z0-9 ]{15,100})").matcher(resumeText.replaceAll("\\n", " "));
-                    if (mProj2.find()) {
-                        foundProj.add(mProj2.group().trim());
-                    } else if (mGit.find(0)) {
-                        foundProj.add("Personal Project (See GitHub: " + mGit.group(1) + ")");
-                    }
-                }
-                extracted.put("projects", foundProj);
-                
-                // 6. Professional Experience Blocks
-                java.util.List<Map<String, String>> expBlocks = new java.util.ArrayList<>();
-                String[] commonRoles = {"Software Engineer", "Developer", "Intern", "Internship", "Manager", "Analyst", "Data Scientist", "Consultant", "Engineer", "Designer", "Lead"};
-                for (String r : commonRoles) {
-                    if (lower.contains(r.toLowerCase())) {
-                        Map<String, String> eb = new HashMap<>();
-                        String displayRole = r.equals("Internship") ? "Intern" : r;
-                        eb.put("role", displayRole);
-                        eb.put("comp", "Company / Organization");
-                        eb.put("start", "2020");
-                        eb.put("end", "Present");
-                        eb.put("desc", "Worked in a professional capacity as a " + displayRole + ".");
-                        expBlocks.add(eb);
-                        if (expBlocks.size() >= 3) break; // Extract up to 3 blocks
-                    }
-                }
-                extracted.put("experienceBlocks", expBlocks);
-                
-                // If explicit years wasn't found, estimate from experience blocks
-                if (!extracted.containsKey("experience") || extracted.get("experience").equals("Not specified")) {
-                    if (expBlocks.size() > 0) {
-                        extracted.put("experience", expBlocks.size() + " years");
-                    } else {
-                        extracted.put("experience", "0 years");
-                    }
-                }
-
-                // 7. Personal Info (Name, Location, Bio)
-                String[] lines = resumeText.split("\n");
-                String name = "";
-                for (String line : lines) {
-                    if (line.trim().length() > 2 && line.trim().length() < 40 && !line.toLowerCase().contains("resume") && !line.toLowerCase().contains("curriculum vitae")) {
-                        name = line.trim();
-                        break;
-                    }
-                }
-                if (!name.isEmpty()) extracted.put("name", name);
-
-                java.util.regex.Matcher mLocation = java.util.regex.Pattern.compile("(?i)(New York|San Francisco|London|Bengaluru|Mumbai|Delhi|Hyderabad|Pune|Chennai|Remote|India|USA|UK)[,\\s]*(India|USA|UK)?").matcher(resumeText);
-                if (mLocation.find()) extracted.put("location", mLocation.group().trim());
-
-                int summaryIdx = lower.indexOf("summary");
-                if (summaryIdx == -1) summaryIdx = lower.indexOf("objective");
-                if (summaryIdx != -1) {
-                    int endIdx = lower.indexOf("\n\n", summaryIdx);
-                    if (endIdx == -1) endIdx = lower.indexOf("experience", summaryIdx);
-                    if (endIdx == -1) endIdx = lower.indexOf("education", summaryIdx);
-                    if (endIdx != -1 && endIdx > summaryIdx + 10) {
-                        String bio = resumeText.substring(summaryIdx, endIdx).replaceAll("(?i)(summary|objective)", "").trim();
-                        bio = bio.replaceAll("^\\s*[\\-\\*:]\\s*", "").trim();
-                        if (bio.length() > 20) extracted.put("bio", bio);
-                    }
-                }
-
-                response.put("extractedData", extracted);
-            } catch (Exception e) {
-                // Log and ignore to not fail the upload just because extraction failed
-                e.printStackTrace();
-            }
+            // Extraction, ML skills and heuristic parsing continue in the background; the profile
+            // auto-fill data is delivered through the parse-task endpoints below
+            ParseTask task = resumeParsePipeline.submit(meta);
+            response.put("parseTaskId", task.getId());
+            response.put("parseStatus", task.getStage().name());
         }
         
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/parse-tasks/{taskId}")
+    public ResponseEntity<?> getParseTask(@PathVariable String taskId, Authentication auth) {
+        User user = userRepository.findByEmail(auth.getName()).orElseThrow(() -> new RuntimeException("User not found"));
+        ParseTask task = resumeParsePipeline.find(taskId, user.getId())
+                .orElseThrow(() -> new NoSuchElementException("Parse task not found"));
+        return ResponseEntity.ok(task.toStatus());
+    }
+
+    @GetMapping(value = "/parse-tasks/{taskId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamParseTask(@PathVariable String taskId, Authentication auth) {
+        User user = userRepository.findByEmail(auth.getName()).orElseThrow(() -> new RuntimeException("User not found"));
+        ParseTask task = resumeParsePipeline.find(taskId, user.getId())
+                .orElseThrow(() -> new NoSuchElementException("Parse task not found"));
+        return resumeParsePipeline.subscribe(task);
+    }
+
     @GetMapping("/my-resume-text")
     public ResponseEntity<?> getMyResumeText(Authentication auth) {
         try {
@@ -227,21 +95,105 @@ public class ResumeController {
                 return ResponseEntity.badRequest().body(java.util.Map.of("error", "No resume uploaded"));
             }
             ResumeMeta latest = resumes.get(resumes.size() - 1);
-            String text = resumeService.extractTextFromResume(latest.getId());
-            return ResponseEntity.ok(java.util.Map.of("text", text));
+            ExtractionResult extraction = resumeService.extractResume(latest.getId());
+            return ResponseEntity.ok(java.util.Map.of(
+                    "text", extraction.getText(),
+                    "pageCount", extraction.getPageCount(),
+                    "truncated", extraction.isTruncated(),
+                    "timedOut", extraction.isTimedOut()));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(java.util.Map.of("error", e.getMessage()));
         }
     }
 
+    /**
+     * Serves the stored file with validators and byte-range support: repeated views revalidate with
+     * If-None-Match / If-Modified-Since and get a 304, and PDF viewers can seek with single Range requests.
+     */
     @GetMapping("/{id}/download")
-    public ResponseEntity<?> download(@PathVariable String id) throws Exception {
+    public ResponseEntity<?> download(@PathVariable String id,
+                                      @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader,
+                                      @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+                                      WebRequest webRequest,
+                                      HttpServletResponse response) throws Exception {
         ResumeMeta meta = resumeService.findById(id).orElseThrow(() -> new NoSuchElementException("Resume not found"));
         GridFsResource resource = resumeService.getFileResourceByGridId(meta.getGridFsId());
         if (resource == null) return ResponseEntity.notFound().build();
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(meta.getContentType()))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + meta.getFilename() + "\"")
-                .body(new InputStreamResource(resource.getInputStream()));
+
+        // Bytes behind a resume never change, so the content hash (or the immutable grid id) is a strong validator
+        String etag = "\"" + (meta.getContentHash() != null ? meta.getContentHash() : meta.getGridFsId()) + "\"";
+        long lastModified = resource.lastModified();
+        long total = resource.contentLength();
+
+        if (webRequest.checkNotModified(etag, lastModified)) {
+            // 304 already written with the validators, no chunk is read from GridFS
+            return null;
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(meta.getContentType()));
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + meta.getFilename() + "\"");
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        // ETag and Last-Modified were already put on the response by checkNotModified
+        headers.setCacheControl(CacheControl.noCache().cachePrivate());
+
+        List<HttpRange> ranges = List.of();
+        if (rangeHeader != null && rangeApplies(ifRange, etag, lastModified)) {
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of(); // Malformed Range headers are ignored, the full file is served
+            }
+        }
+
+        // Multi-range requests are answered with the whole file, which RFC 9110 allows
+        if (ranges.size() == 1) {
+            long start;
+            long end;
+            try {
+                start = ranges.get(0).getRangeStart(total);
+                end = ranges.get(0).getRangeEnd(total);
+            } catch (IllegalArgumentException e) {
+                headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + total);
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).headers(headers).build();
+            }
+            long length = end - start + 1;
+            InputStream inputStream = resource.getInputStream();
+            // GridFS download streams skip whole chunks without fetching them
+            inputStream.skipNBytes(start);
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + total);
+            headers.setContentLength(length);
+            return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                    .headers(headers)
+                    .body(new InputStreamResource(new LimitedInputStream(inputStream, length)));
+        }
+
+        // The whole file is written here rather than returned as a Resource: for a 200 Resource body
+        // Spring applies the request's Range header itself, which would undo the decision above
+        headers.setContentLength(total);
+        response.setStatus(HttpStatus.OK.value());
+        headers.forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        try (InputStream inputStream = resource.getInputStream()) {
+            inputStream.transferTo(response.getOutputStream());
+        }
+        return null;
+    }
+
+    /**
+     * If-Range: the range is only honoured when the client's copy is still current.
+     */
+    private static boolean rangeApplies(String ifRange, String etag, long lastModified) {
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            long since = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            return lastModified / 1000 <= since / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
     }
 }
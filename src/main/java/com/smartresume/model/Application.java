@@ -37,6 +37,8 @@ public class Application {
     private LocalDateTime interviewDateTime;
     /** Predicted job role based on ML skill clustering */
     private String predictedRole;
+    /** ATS stage that produced matchScore: PREFILTER (local skill overlap), ML or FALLBACK */
+    private String atsDecisionStage;
     
     // Cached candidate profile data for recruiter "Industry View"
     private String candidateBio;
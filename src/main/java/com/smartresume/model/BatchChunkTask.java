@@ -0,0 +1,45 @@
+package com.smartresume.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One chunk of a batch job, queued in Mongo so any node can run it.
+ * Workers claim a task with a lease that heartbeats keep extending; a lease that runs out (node
+ * restarted or died) makes the task claimable again. The chunk's result rows are written to
+ * batch_results before the task is marked DONE, so a resumed job only redoes chunks that never finished.
+ */
+@Document(collection = "batch_chunk_tasks")
+@CompoundIndexes({
+        @CompoundIndex(name = "claim", def = "{'status': 1, 'leaseExpiresAt': 1}"),
+        @CompoundIndex(name = "batch_seq", def = "{'batchId': 1, 'seq': 1}")
+})
+@Getter @Setter @NoArgsConstructor
+public class BatchChunkTask {
+
+    public enum Status { QUEUED, LEASED, DONE, FAILED }
+
+    @Id
+    private String id;
+    private String batchId;
+    private int seq;
+    private Status status;
+    /** Candidates in this chunk: applicationId, candidateName and either resumeId (GridFS) or text */
+    private List<Map<String, String>> items;
+    private String leaseOwner;
+    private String leaseToken;
+    private LocalDateTime leaseExpiresAt;
+    /** A released task is not claimed again before this time (retry backoff) */
+    private LocalDateTime notBefore;
+    private int attempts;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -1,8 +1,10 @@
 package com.smartresume.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -18,10 +20,18 @@ public class BatchJob {
     private int totalJds;
     private String jdId;
     
+    // Only on jobs saved before results moved to batch_results (see BatchResultRow)
     private List<Map<String, Object>> results;
     
     private List<Map<String, String>> jds;
 
+    // Durable chunk-task inputs, so any node can resume the job (see BatchChunkTask)
+    private String kind; // SCREEN (one JD) or PLACEMENT (JD x resume matrix)
+    private String jdText;
+    private List<Map<String, String>> jdTexts; // id, text
+    private int totalChunks;
+    private LocalDateTime createdAt;
+
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
 
@@ -40,9 +50,27 @@ public class BatchJob {
     public String getJdId() { return jdId; }
     public void setJdId(String jdId) { this.jdId = jdId; }
 
+    @JsonIgnore
     public List<Map<String, Object>> getResults() { return results; }
     public void setResults(List<Map<String, Object>> results) { this.results = results; }
     
     public List<Map<String, String>> getJds() { return jds; }
     public void setJds(List<Map<String, String>> jds) { this.jds = jds; }
+
+    public String getKind() { return kind; }
+    public void setKind(String kind) { this.kind = kind; }
+
+    @JsonIgnore
+    public String getJdText() { return jdText; }
+    public void setJdText(String jdText) { this.jdText = jdText; }
+
+    @JsonIgnore
+    public List<Map<String, String>> getJdTexts() { return jdTexts; }
+    public void setJdTexts(List<Map<String, String>> jdTexts) { this.jdTexts = jdTexts; }
+
+    public int getTotalChunks() { return totalChunks; }
+    public void setTotalChunks(int totalChunks) { this.totalChunks = totalChunks; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 }
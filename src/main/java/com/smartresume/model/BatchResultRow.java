@@ -0,0 +1,33 @@
+package com.smartresume.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+import lombok.*;
+
+import java.util.Map;
+
+/**
+ * One candidate's result in a batch job. The id is "{batchId}:{chunk seq}:{index}", so a retried
+ * chunk overwrites its own rows instead of adding duplicates. matchScore is the row's score
+ * (for placement rows, the best JD match) and drives the score-sorted results API.
+ */
+@Document(collection = "batch_results")
+@CompoundIndexes({
+        @CompoundIndex(name = "batch_score", def = "{'batchId': 1, 'matchScore': -1, '_id': 1}"),
+        @CompoundIndex(name = "batch_seq", def = "{'batchId': 1, 'seq': 1, 'index': 1}")
+})
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class BatchResultRow {
+    @Id
+    private String id;
+    private String batchId;
+    private int seq;
+    private int index;
+    private String applicationId;
+    private String candidateName;
+    private double matchScore;
+    /** The full result row as returned to the frontend */
+    private Map<String, Object> data;
+}
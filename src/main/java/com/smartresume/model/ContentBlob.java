@@ -0,0 +1,22 @@
+package com.smartresume.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One stored GridFS file per distinct content, keyed by the SHA-256 of its bytes.
+ * Every ResumeMeta pointing at the same bytes shares the blob and bumps its reference count.
+ */
+@Document(collection = "content_blobs")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class ContentBlob {
+    @Id
+    private String id; // SHA-256 hex of the file bytes
+    private String gridFsId;
+    private long size;
+    private long refCount;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,25 @@
+package com.smartresume.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Text extracted from an uploaded file, keyed by "{sha256 of the file bytes}:{extractor version}"
+ * so identical files are only parsed once per extractor version.
+ */
+@Document(collection = "extracted_texts")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class ExtractedText {
+    @Id
+    private String id;
+    private String contentHash;
+    private int extractorVersion;
+    private String text;
+    private int pageCount;
+    private int pagesExtracted;
+    private boolean truncated;
+    private LocalDateTime extractedAt;
+}
@@ -0,0 +1,21 @@
+package com.smartresume.model;
+
+import lombok.*;
+
+/**
+ * Outcome of extracting text from an uploaded document.
+ * Besides the text it reports whether the page cap truncated the document
+ * or the extraction deadline cut it short, so callers can surface partial results.
+ */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class ExtractionResult {
+    private String text;
+    private int pageCount;      // pages in the document (0 for non-paged formats)
+    private int pagesExtracted; // pages actually read before the cap or deadline
+    private boolean truncated;  // page cap reached
+    private boolean timedOut;   // deadline reached, text holds only the pages read in time
+
+    public static ExtractionResult of(String text) {
+        return new ExtractionResult(text, 0, 0, false, false);
+    }
+}
@@ -27,7 +27,8 @@ public class MLAnalysisResult {
 
     private List<CourseRecommendation> recommendations;
 
-    private String status; // PENDING, COMPLETED, FAILED
+    private String status; // PENDING, COMPLETED, FAILED, FALLBACK (local score while rate limited), LOCAL
+    private String decisionStage; // ATS cascade stage that decided: PREFILTER, ML, FALLBACK
     private Date analyzedAt;
     private Date createdAt;
 
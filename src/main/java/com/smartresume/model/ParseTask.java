@@ -0,0 +1,45 @@
+package com.smartresume.model;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-memory status of the background parse that follows a resume upload.
+ */
+@Getter @Setter @NoArgsConstructor
+public class ParseTask {
+
+    public enum Stage {
+        QUEUED, EXTRACTING, ML_SKILLS, PARSING, COMPLETED, FAILED;
+
+        public boolean isTerminal() {
+            return this == COMPLETED || this == FAILED;
+        }
+    }
+
+    private String id;
+    private String resumeId;
+    private String ownerId;
+    private Stage stage;
+    private Map<String, Object> extractedData;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    /**
+     * Response body for the polling and SSE endpoints.
+     */
+    public synchronized Map<String, Object> toStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("parseTaskId", id);
+        status.put("resumeId", resumeId);
+        status.put("status", stage.name());
+        if (extractedData != null) status.put("extractedData", extractedData);
+        if (error != null) status.put("error", error);
+        status.put("updatedAt", updatedAt);
+        return status;
+    }
+}
@@ -16,4 +16,5 @@ public class ResumeMeta {
     private String ownerId;
     private String extractedText;
     private String fileType; // "RESUME" or "CERTIFICATE"
+    private String contentHash; // SHA-256 of the file bytes, keys the extraction cache
 }
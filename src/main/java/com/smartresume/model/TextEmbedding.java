@@ -0,0 +1,22 @@
+package com.smartresume.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Sentence embedding of a resume or JD text, keyed by "{sha256 of the normalised text}:{model version}".
+ * The vector is stored as little-endian float32 bytes (1.5 KB for the 384-dimension model).
+ */
+@Document(collection = "text_embeddings")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class TextEmbedding {
+    @Id
+    private String id;
+    private String model;
+    private int dimension;
+    private byte[] vector;
+    private LocalDateTime createdAt;
+}
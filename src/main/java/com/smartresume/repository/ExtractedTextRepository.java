@@ -0,0 +1,7 @@
+package com.smartresume.repository;
+
+import com.smartresume.model.ExtractedText;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface ExtractedTextRepository extends MongoRepository<ExtractedText, String> {
+}
@@ -0,0 +1,7 @@
+package com.smartresume.repository;
+
+import com.smartresume.model.TextEmbedding;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface TextEmbeddingRepository extends MongoRepository<TextEmbedding, String> {
+}
@@ -1,13 +1,23 @@
 package com.smartresume.scheduler;
 
+import com.smartresume.service.MLCircuitBreaker;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * Keeps the ML service warm by pinging its /health endpoint every 10 minutes.
  * Prevents cold start delays on free-tier hosting (Render, Railway).
+ * The same health check is the half-open probe of the {@link MLCircuitBreaker}.
+ * Checks run on their own thread: with the ML client's cold-start timeouts one can take minutes,
+ * which on the shared scheduler thread would stall every other scheduled job.
  */
 @Component
 public class MLWarmupScheduler {
@@ -15,17 +25,70 @@ public class MLWarmupScheduler {
     @Value("${ml.service.url:http://localhost:5000}")
     private String mlServiceUrl;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
+    private final MLCircuitBreaker circuitBreaker;
+    private final ExecutorService healthChecks = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "ml-health-check");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicBoolean checking = new AtomicBoolean();
+
+    public MLWarmupScheduler(@Qualifier("mlRestTemplate") RestTemplate restTemplate, MLCircuitBreaker circuitBreaker) {
+        this.restTemplate = restTemplate;
+        this.circuitBreaker = circuitBreaker;
+    }
 
     @Scheduled(fixedRate = 600_000) // every 10 minutes
     public void pingMLService() {
+        submitCheck(false);
+    }
+
+    /**
+     * While the circuit is open, probes /health once open-ms has passed; only a healthy
+     * service gets trial calls again.
+     */
+    @Scheduled(fixedDelayString = "${ml.circuit.probe-interval-ms:5000}")
+    public void probeOpenCircuit() {
+        if (circuitBreaker.isProbeDue()) {
+            submitCheck(true);
+        }
+    }
+
+    /**
+     * Starts a health check unless one is still running; a probe skipped that way is retried on the next tick.
+     */
+    private void submitCheck(boolean probe) {
+        if (!checking.compareAndSet(false, true)) {
+            return;
+        }
+        healthChecks.execute(() -> {
+            try {
+                boolean healthy = checkHealth();
+                if (probe) {
+                    circuitBreaker.onProbe(healthy);
+                }
+            } finally {
+                checking.set(false);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        healthChecks.shutdownNow();
+    }
+
+    private boolean checkHealth() {
         try {
             String url = mlServiceUrl + "/health";
             String response = restTemplate.getForObject(url, String.class);
             System.out.println("🟢 ML service ping OK: " + response);
+            return true;
         } catch (Exception e) {
             // Don't crash the app if ML is down — just log
             System.out.println("🔴 ML service warmup ping failed: " + e.getMessage());
+            return false;
         }
     }
 }
@@ -28,6 +28,7 @@ public class ApplicationService {
     private final MLIntegrationService mlIntegrationService;
     private final ResumeService resumeService;
     private final EmailService emailService;
+    private final AtsCascade atsCascade;
 
     private static final double ATS_THRESHOLD = 50.0;
     private static final int DAILY_APPLICATION_LIMIT = 10;
@@ -102,22 +103,23 @@ public class ApplicationService {
         application.setCandidateAvailability(user.getAvailability());
         application.setCandidateLanguages(user.getLanguages());
 
-        // Run ATS/ML scoring
+        // Run ATS scoring: local skill-overlap prefilter, ML only for borderline candidates
         try {
             String resumeText = resumeService.extractTextFromResume(resume.getId());
             String jobDescription = job.getDescription() + " " + job.getRequirements();
-            var mlResult = mlIntegrationService.analyzeMatch(
+            var mlResult = atsCascade.analyze(
                     resumeText, jobDescription, job.getTitle(), job.getRequirements());
 
                 if (mlResult != null) {
                 application.setMatchScore(mlResult.getMatchScore());
                 application.setSkillsGap(mlResult.getSkillsGap());
                 application.setPredictedRole(mlResult.getPredictedRole());
+                application.setAtsDecisionStage(mlResult.getDecisionStage());
 
                 if (mlResult.getMatchScore() < ATS_THRESHOLD) {
                     application.setStatus("ATS_REJECTED");
                     System.out.println("❌ ATS rejected: score=" + mlResult.getMatchScore() + ", role="
-                            + mlResult.getPredictedRole());
+                            + mlResult.getPredictedRole() + ", stage=" + mlResult.getDecisionStage());
                     Application saved = applicationRepository.save(application);
                     emailService.sendStatusUpdateEmailWithJob(candidateEmail, user.getName(), job, "ATS_REJECTED",
                             "ATS screening", null);
@@ -125,7 +127,7 @@ public class ApplicationService {
                 } else {
                     application.setStatus("UNDER_REVIEW");
                     System.out.println("✅ ATS passed: score=" + mlResult.getMatchScore() + ", role="
-                            + mlResult.getPredictedRole());
+                            + mlResult.getPredictedRole() + ", stage=" + mlResult.getDecisionStage());
                     Application saved = applicationRepository.save(application);
                     emailService.sendApplicationConfirmationEmail(candidateEmail, user.getName(), job.getTitle(), job.getCompany());
                     return saved;
@@ -159,7 +161,8 @@ public class ApplicationService {
         try {
             String resumeText = resumeService.extractTextFromResume(resume.getId());
             String jobDescription = job.getDescription() + " " + job.getRequirements();
-            var mlResult = mlIntegrationService.analyzeMatch(
+            // Same cascade as applyToJob so the preview score is the one the application will get
+            var mlResult = atsCascade.analyze(
                     resumeText, jobDescription, job.getTitle(), job.getRequirements());
 
             if (mlResult != null && mlResult.getMatchScore() != null) {
@@ -286,14 +289,18 @@ public class ApplicationService {
             String resumeText = resumeService.extractTextFromResume(resume.getId());
             String jobDescription = job.getDescription() + " " + job.getRequirements();
 
-            var mlResult = mlIntegrationService.analyzeMatch(
-                    resumeText, jobDescription, job.getTitle(), job.getRequirements());
+            // A recruiter re-scoring yields to candidates who are waiting on their own apply
+            MLLane lane = isCandidate ? MLLane.INTERACTIVE : MLLane.RECRUITER;
+            var mlResult = MLLane.callAs(lane, () -> mlIntegrationService.analyzeMatch(
+                    resumeText, jobDescription, job.getTitle(), job.getRequirements()));
 
             if (mlResult != null) {
                 application.setMatchScore(mlResult.getMatchScore());
                 application.setSkillsGap(mlResult.getSkillsGap());
                 application.setPredictedRole(mlResult.getPredictedRole());
                 application.setReAnalyzedAt(LocalDateTime.now());
+                // An explicit re-analysis always asks the ML model
+                application.setAtsDecisionStage(AtsCascade.stageOf(mlResult).name());
 
                 // Update ATS status if it was previously pending
                 if ("PENDING".equals(application.getStatus())) {
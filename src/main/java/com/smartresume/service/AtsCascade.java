@@ -0,0 +1,122 @@
+package com.smartresume.service;
+
+import com.smartresume.model.MLAnalysisResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Two-stage ATS screening. The in-process keyword/skill-overlap score from {@link LocalMatchScorer} runs
+ * first and only candidates inside the uncertainty band [reject-below, pass-above] go on to the semantic
+ * ML model.
+ *
+ * <p>The ML match score is half semantic similarity and half this same local score, so a resume covering
+ * almost none of the JD's skills needs a near-perfect semantic score to reach the ATS threshold, and one
+ * covering nearly all of them needs only a weak one. Both ends are decided locally.
+ */
+@Component
+@Slf4j
+public class AtsCascade {
+
+    public enum Stage { PREFILTER, ML, FALLBACK }
+
+    /**
+     * Outcome of the first stage; local is null when the cascade is disabled.
+     */
+    public record Screen(Stage stage, LocalMatchScorer.Match local) {
+        public boolean decided() {
+            return stage == Stage.PREFILTER;
+        }
+    }
+
+    private final LocalMatchScorer localMatchScorer;
+    private final MLIntegrationService mlIntegrationService;
+    private final boolean enabled;
+    private final double rejectBelow;
+    private final double passAbove;
+    private final Counter prefilterRejects;
+    private final Counter prefilterPasses;
+    private final Counter sentToModel;
+
+    public AtsCascade(LocalMatchScorer localMatchScorer, MLIntegrationService mlIntegrationService,
+                      MeterRegistry meterRegistry,
+                      @Value("${ats.cascade.enabled:true}") boolean enabled,
+                      @Value("${ats.cascade.reject-below:20}") double rejectBelow,
+                      @Value("${ats.cascade.pass-above:80}") double passAbove) {
+        this.localMatchScorer = localMatchScorer;
+        this.mlIntegrationService = mlIntegrationService;
+        this.enabled = enabled;
+        if (rejectBelow > passAbove) {
+            log.warn("ats.cascade.reject-below ({}) is above pass-above ({}), using {} for both",
+                    rejectBelow, passAbove, passAbove);
+            rejectBelow = passAbove;
+        }
+        this.rejectBelow = rejectBelow;
+        this.passAbove = passAbove;
+        this.prefilterRejects = Counter.builder("ats.cascade.decisions").tag("stage", "prefilter_reject")
+                .description("Candidates rejected on the local skill-overlap score").register(meterRegistry);
+        this.prefilterPasses = Counter.builder("ats.cascade.decisions").tag("stage", "prefilter_pass")
+                .description("Candidates passed on the local skill-overlap score").register(meterRegistry);
+        this.sentToModel = Counter.builder("ats.cascade.decisions").tag("stage", "ml")
+                .description("Candidates inside the uncertainty band sent to the ML model").register(meterRegistry);
+    }
+
+    public Screen screen(String resumeText, String jobDescription) {
+        if (!enabled) {
+            return new Screen(Stage.ML, null);
+        }
+        LocalMatchScorer.Match local = localMatchScorer.score(resumeText, jobDescription);
+        if (local.matchScore() < rejectBelow) {
+            prefilterRejects.increment();
+            return new Screen(Stage.PREFILTER, local);
+        }
+        if (local.matchScore() > passAbove) {
+            prefilterPasses.increment();
+            return new Screen(Stage.PREFILTER, local);
+        }
+        sentToModel.increment();
+        return new Screen(Stage.ML, local);
+    }
+
+    /**
+     * Scores one resume against a job through the cascade, recording the deciding stage on the result.
+     */
+    public MLAnalysisResult analyze(String resumeText, String jobDescription, String jobTitle, String requiredSkills) {
+        Screen screen = screen(resumeText, jobDescription);
+        if (screen.decided()) {
+            MLAnalysisResult result = mlIntegrationService.localResult(screen.local(), "LOCAL");
+            result.setDecisionStage(Stage.PREFILTER.name());
+            return result;
+        }
+        MLAnalysisResult result = mlIntegrationService.analyzeMatch(resumeText, jobDescription, jobTitle, requiredSkills);
+        if (result != null) {
+            result.setDecisionStage(stageOf(result).name());
+        }
+        return result;
+    }
+
+    /**
+     * Stage behind a result that came back from the ML path.
+     */
+    public static Stage stageOf(MLAnalysisResult result) {
+        return "FALLBACK".equals(result.getStatus()) ? Stage.FALLBACK : Stage.ML;
+    }
+
+    /**
+     * Batch-analyze shaped result row for a candidate decided by the prefilter.
+     */
+    public static Map<String, Object> batchRow(Object applicationId, LocalMatchScorer.Match local) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("applicationId", applicationId);
+        row.put("matchScore", local.matchScore());
+        row.put("missingSkills", local.skillsGap());
+        row.put("rank", 0);
+        row.put("decidedBy", Stage.PREFILTER.name());
+        return row;
+    }
+}
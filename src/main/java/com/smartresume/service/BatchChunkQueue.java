@@ -0,0 +1,180 @@
+package com.smartresume.service;
+
+import com.smartresume.model.BatchChunkTask;
+import com.smartresume.model.BatchJob;
+import com.smartresume.repository.BatchJobRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Mongo-backed queue of {@link BatchChunkTask}s. Every state change is a conditional update, so
+ * a claim is atomic across nodes and a worker whose lease was taken over can no longer heartbeat,
+ * complete or release the task (the lease token acts as a fencing token).
+ */
+@Component
+public class BatchChunkQueue {
+
+    private final MongoTemplate mongoTemplate;
+    private final BatchJobRepository batchJobRepository;
+    private final long leaseMs;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+
+    public BatchChunkQueue(MongoTemplate mongoTemplate, BatchJobRepository batchJobRepository,
+                           @Value("${batch.queue.lease-ms:120000}") long leaseMs,
+                           @Value("${batch.queue.max-attempts:3}") int maxAttempts,
+                           @Value("${batch.queue.retry-backoff-ms:30000}") long retryBackoffMs,
+                           @Value("${ml.circuit.open-ms:30000}") long circuitOpenMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.batchJobRepository = batchJobRepository;
+        this.leaseMs = leaseMs;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        // A retry inside the breaker's open window would fail fast and burn an attempt for nothing
+        this.retryBackoffMs = Math.max(retryBackoffMs, circuitOpenMs);
+    }
+
+    /**
+     * Persists one task per chunk, then records the chunk count on the job. The job's inputs must
+     * already be set on it; from here on any node can finish the job.
+     */
+    public void enqueue(BatchJob job, List<List<Map<String, String>>> chunks) {
+        LocalDateTime now = LocalDateTime.now();
+        List<BatchChunkTask> tasks = new ArrayList<>(chunks.size());
+        for (int seq = 0; seq < chunks.size(); seq++) {
+            BatchChunkTask task = new BatchChunkTask();
+            task.setBatchId(job.getId());
+            task.setSeq(seq);
+            task.setStatus(BatchChunkTask.Status.QUEUED);
+            task.setItems(chunks.get(seq));
+            task.setCreatedAt(now);
+            task.setUpdatedAt(now);
+            tasks.add(task);
+        }
+        if (tasks.isEmpty()) {
+            job.setStatus("COMPLETED");
+        } else {
+            mongoTemplate.insertAll(tasks);
+        }
+        job.setTotalChunks(chunks.size());
+        batchJobRepository.save(job);
+    }
+
+    /**
+     * Claims the oldest runnable task: queued and past its retry backoff, or leased by a worker whose lease ran out.
+     */
+    public BatchChunkTask claim(String owner) {
+        LocalDateTime now = LocalDateTime.now();
+        Query query = new Query(new Criteria().orOperator(
+                Criteria.where("status").is(BatchChunkTask.Status.QUEUED).and("notBefore").is(null),
+                Criteria.where("status").is(BatchChunkTask.Status.QUEUED).and("notBefore").lte(now),
+                Criteria.where("status").is(BatchChunkTask.Status.LEASED).and("leaseExpiresAt").lt(now)
+                        .and("attempts").lt(maxAttempts)))
+                .with(Sort.by("createdAt", "seq"));
+        Update update = new Update()
+                .set("status", BatchChunkTask.Status.LEASED)
+                .set("leaseOwner", owner)
+                .set("leaseToken", UUID.randomUUID().toString())
+                .set("leaseExpiresAt", now.plusNanos(leaseMs * 1_000_000))
+                .set("updatedAt", now)
+                .inc("attempts", 1);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+                BatchChunkTask.class);
+    }
+
+    /**
+     * Extends the lease; false when the task is no longer ours.
+     */
+    public boolean heartbeat(BatchChunkTask task) {
+        LocalDateTime now = LocalDateTime.now();
+        return mongoTemplate.updateFirst(owned(task),
+                new Update().set("leaseExpiresAt", now.plusNanos(leaseMs * 1_000_000)).set("updatedAt", now),
+                BatchChunkTask.class).getModifiedCount() == 1;
+    }
+
+    /**
+     * Marks the chunk DONE once its rows are stored; false when the lease was lost and another worker owns the chunk.
+     */
+    public boolean complete(BatchChunkTask task) {
+        return mongoTemplate.updateFirst(owned(task),
+                new Update().set("status", BatchChunkTask.Status.DONE)
+                        .unset("leaseToken")
+                        .unset("leaseExpiresAt")
+                        .set("updatedAt", LocalDateTime.now()),
+                BatchChunkTask.class).getModifiedCount() == 1;
+    }
+
+    /**
+     * Gives a task back after an error: queued for another attempt after retry-backoff-ms times the attempts
+     * made so far (never less than the ML circuit's open-ms), or FAILED once max-attempts is used up.
+     *
+     * @return true when the task is now FAILED
+     */
+    public boolean release(BatchChunkTask task, String error) {
+        boolean exhausted = task.getAttempts() >= maxAttempts;
+        long backoffMs = retryBackoffMs * Math.max(1, task.getAttempts());
+        Update update = new Update()
+                .set("status", exhausted ? BatchChunkTask.Status.FAILED : BatchChunkTask.Status.QUEUED)
+                .set("notBefore", LocalDateTime.now().plusNanos(backoffMs * 1_000_000))
+                .set("error", error)
+                .unset("leaseToken")
+                .unset("leaseExpiresAt")
+                .set("updatedAt", LocalDateTime.now());
+        return mongoTemplate.updateFirst(owned(task), update, BatchChunkTask.class).getModifiedCount() == 1 && exhausted;
+    }
+
+    /**
+     * Fails tasks whose lease ran out on their last attempt (each attempt crashed a node or hung).
+     *
+     * @return the batches that had a task failed
+     */
+    public List<String> failAbandoned() {
+        List<String> batchIds = new ArrayList<>();
+        while (true) {
+            BatchChunkTask task = mongoTemplate.findAndModify(
+                    new Query(Criteria.where("status").is(BatchChunkTask.Status.LEASED)
+                            .and("leaseExpiresAt").lt(LocalDateTime.now())
+                            .and("attempts").gte(maxAttempts)),
+                    new Update().set("status", BatchChunkTask.Status.FAILED)
+                            .set("error", "Lease expired on the last attempt")
+                            .unset("leaseToken")
+                            .set("updatedAt", LocalDateTime.now()),
+                    BatchChunkTask.class);
+            if (task == null) {
+                return batchIds;
+            }
+            batchIds.add(task.getBatchId());
+        }
+    }
+
+    public long countOpen(String batchId) {
+        return mongoTemplate.count(new Query(Criteria.where("batchId").is(batchId)
+                .and("status").in(BatchChunkTask.Status.QUEUED, BatchChunkTask.Status.LEASED)), BatchChunkTask.class);
+    }
+
+    public boolean hasTasks(String batchId) {
+        return mongoTemplate.exists(new Query(Criteria.where("batchId").is(batchId)), BatchChunkTask.class);
+    }
+
+    public List<BatchChunkTask> tasks(String batchId) {
+        return mongoTemplate.find(new Query(Criteria.where("batchId").is(batchId)).with(Sort.by("seq")),
+                BatchChunkTask.class);
+    }
+
+    private static Query owned(BatchChunkTask task) {
+        return new Query(Criteria.where("_id").is(task.getId())
+                .and("status").is(BatchChunkTask.Status.LEASED)
+                .and("leaseToken").is(task.getLeaseToken()));
+    }
+}
@@ -0,0 +1,267 @@
+package com.smartresume.service;
+
+import com.smartresume.model.BatchChunkTask;
+import com.smartresume.model.BatchJob;
+import com.smartresume.repository.BatchJobRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs batch chunk tasks from {@link BatchChunkQueue} on this node as a staged pipeline:
+ * <ol>
+ *   <li>extract: a claimed chunk's resumes are extracted concurrently on extract-workers threads;
+ *       up to prefetch-chunks chunks beyond those being scored are claimed ahead, so extraction of the
+ *       next chunks overlaps the ML requests of the current ones;</li>
+ *   <li>score: extracted chunks are scored on concurrency threads, one ML request per chunk in flight on
+ *       each; pacing against the ML service is left to MLTrafficGovernor;</li>
+ *   <li>aggregate: one thread stores each scored chunk's rows in {@link BatchResultStore}, checkpoints the
+ *       task, bumps the job's counters and feeds {@link BatchLeaderboard} and {@link BatchProgressHub},
+ *       so bookkeeping never holds up a scoring thread.</li>
+ * </ol>
+ * Leases of claimed chunks are extended every heartbeat-ms. When the last chunk is done, whichever
+ * node finished it marks the job COMPLETED.
+ */
+@Component
+@Slf4j
+public class BatchChunkWorker {
+
+    private final BatchChunkQueue queue;
+    private final BatchProcessingService batchProcessingService;
+    private final BatchJobRepository batchJobRepository;
+    private final BatchResultStore batchResultStore;
+    private final BatchProgressHub batchProgressHub;
+    private final BatchLeaderboard batchLeaderboard;
+    private final MongoTemplate mongoTemplate;
+    private final int concurrency;
+    private final int prefetchChunks;
+    private final long stagingTimeoutMinutes;
+    private final String node;
+    private final ExecutorService extractPool;
+    private final ExecutorService scorePool;
+    private final ExecutorService aggregator;
+    private final ScheduledExecutorService heartbeats;
+    private final Map<String, BatchChunkTask> running = new ConcurrentHashMap<>();
+
+    public BatchChunkWorker(BatchChunkQueue queue, BatchProcessingService batchProcessingService,
+                            BatchJobRepository batchJobRepository, BatchResultStore batchResultStore,
+                            BatchProgressHub batchProgressHub, BatchLeaderboard batchLeaderboard,
+                            MongoTemplate mongoTemplate,
+                            @Value("${batch.queue.concurrency:3}") int concurrency,
+                            @Value("${batch.pipeline.extract-workers:4}") int extractWorkers,
+                            @Value("${batch.pipeline.prefetch-chunks:2}") int prefetchChunks,
+                            @Value("${batch.queue.heartbeat-ms:30000}") long heartbeatMs,
+                            @Value("${batch.queue.staging-timeout-minutes:30}") long stagingTimeoutMinutes) {
+        this.queue = queue;
+        this.batchProcessingService = batchProcessingService;
+        this.batchJobRepository = batchJobRepository;
+        this.batchResultStore = batchResultStore;
+        this.batchProgressHub = batchProgressHub;
+        this.batchLeaderboard = batchLeaderboard;
+        this.mongoTemplate = mongoTemplate;
+        this.concurrency = Math.max(1, concurrency);
+        this.prefetchChunks = Math.max(0, prefetchChunks);
+        this.stagingTimeoutMinutes = stagingTimeoutMinutes;
+        this.node = ManagementFactory.getRuntimeMXBean().getName();
+        this.extractPool = Executors.newFixedThreadPool(Math.max(1, extractWorkers), daemon("batch-extract-"));
+        this.scorePool = Executors.newFixedThreadPool(this.concurrency, daemon("batch-chunk-"));
+        this.aggregator = Executors.newSingleThreadExecutor(daemon("batch-aggregate-"));
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(daemon("batch-heartbeat-"));
+        heartbeats.scheduleWithFixedDelay(this::heartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+    }
+
+    private static ThreadFactory daemon(String prefix) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /**
+     * Claims chunks while fewer than concurrency + prefetch-chunks are in the pipeline on this node.
+     */
+    @Scheduled(fixedDelayString = "${batch.queue.poll-ms:1000}")
+    public synchronized void poll() {
+        while (running.size() < concurrency + prefetchChunks) {
+            BatchChunkTask task = queue.claim(node);
+            if (task == null) {
+                return;
+            }
+            running.put(task.getId(), task);
+            try {
+                extract(task);
+            } catch (Exception e) {
+                fail(task, e);
+            }
+        }
+    }
+
+    /**
+     * Stage 1: extracts every item of the chunk in parallel, then hands the chunk to the score stage.
+     */
+    private void extract(BatchChunkTask task) {
+        BatchJob job = batchJobRepository.findById(task.getBatchId()).orElse(null);
+        if (job == null || !"PROCESSING".equals(job.getStatus())) {
+            // Job deleted or already finished: nothing left to compute for this chunk
+            queue.complete(task);
+            running.remove(task.getId());
+            return;
+        }
+        List<CompletableFuture<String>> texts = new ArrayList<>(task.getItems().size());
+        for (Map<String, String> item : task.getItems()) {
+            texts.add(CompletableFuture.supplyAsync(() -> batchProcessingService.itemText(item), extractPool));
+        }
+        CompletableFuture.allOf(texts.toArray(CompletableFuture[]::new))
+                .thenApplyAsync(v -> score(job, task, texts.stream().map(CompletableFuture::join).toList()), scorePool)
+                .thenAcceptAsync(rows -> aggregate(job, task, rows), aggregator)
+                .exceptionally(e -> {
+                    fail(task, e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+                    return null;
+                });
+    }
+
+    /**
+     * Stage 2: the chunk's ML request (or in-process placement matrix).
+     */
+    private List<Map<String, Object>> score(BatchJob job, BatchChunkTask task, List<String> texts) {
+        return batchProcessingService.runChunk(job, task, texts);
+    }
+
+    /**
+     * Stage 3: stores the rows, checkpoints the task and publishes progress.
+     */
+    private void aggregate(BatchJob job, BatchChunkTask task, List<Map<String, Object>> rows) {
+        try {
+            // Rows first: if the lease was lost meanwhile, the new owner rewrites the same row ids
+            batchResultStore.write(task.getBatchId(), task.getSeq(), rows);
+            if (!queue.complete(task)) {
+                log.warn("Lost the lease on chunk {} of batch {}, its new owner finishes it", task.getSeq(), task.getBatchId());
+                return;
+            }
+            batchLeaderboard.offer(job, task.getSeq(), rows);
+            BatchJob counters = mongoTemplate.findAndModify(
+                    BatchProgressHub.countersOf(Criteria.where("_id").is(task.getBatchId())),
+                    new Update().inc("processedResumes", task.getItems().size()),
+                    FindAndModifyOptions.options().returnNew(true), BatchJob.class);
+            if (counters != null) {
+                batchProgressHub.chunkDone(counters, task.getSeq(), rows);
+            }
+            finishIfDone(task.getBatchId());
+        } finally {
+            running.remove(task.getId());
+        }
+    }
+
+    private void fail(BatchChunkTask task, Throwable e) {
+        try {
+            log.error("Chunk {} of batch {} failed (attempt {}): {}", task.getSeq(), task.getBatchId(),
+                    task.getAttempts(), e.getMessage(), e);
+            if (queue.release(task, e.getMessage())) {
+                finishIfDone(task.getBatchId());
+            }
+        } catch (Exception releaseError) {
+            // The lease runs out and the chunk is reclaimed
+            log.error("Could not release chunk {} of batch {}: {}", task.getSeq(), task.getBatchId(), releaseError.getMessage());
+        } finally {
+            running.remove(task.getId());
+        }
+    }
+
+    private void heartbeat() {
+        for (BatchChunkTask task : running.values()) {
+            try {
+                if (!queue.heartbeat(task)) {
+                    log.warn("Lease on chunk {} of batch {} was taken over", task.getSeq(), task.getBatchId());
+                }
+            } catch (Exception e) {
+                log.warn("Heartbeat failed for chunk {} of batch {}: {}", task.getSeq(), task.getBatchId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Completes the job once no chunk is queued or running, writing fallback rows for chunks that
+     * failed on every attempt. Safe to race: fallback rows have fixed ids and only a PROCESSING job is updated.
+     */
+    private void finishIfDone(String batchId) {
+        if (queue.countOpen(batchId) > 0) {
+            return;
+        }
+        BatchJob job = batchJobRepository.findById(batchId).orElse(null);
+        if (job == null || !"PROCESSING".equals(job.getStatus())) {
+            return;
+        }
+        int failed = 0;
+        for (BatchChunkTask task : queue.tasks(batchId)) {
+            if (task.getStatus() == BatchChunkTask.Status.FAILED) {
+                batchResultStore.write(batchId, task.getSeq(), batchProcessingService.fallbackRows(job, task));
+                failed++;
+            }
+        }
+        boolean updated = mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(batchId).and("status").is("PROCESSING")),
+                new Update().set("status", "COMPLETED")
+                        .set("processedResumes", job.getTotalResumes()),
+                BatchJob.class).getModifiedCount() == 1;
+        if (!updated) {
+            return;
+        }
+        batchProgressHub.finished(batchId, "COMPLETED", job.getTotalResumes(), job.getTotalResumes());
+        log.info("BatchJob {} completed: {} chunks, {} failed.", batchId, job.getTotalChunks(), failed);
+    }
+
+    /**
+     * Fails chunks that crashed a worker on every attempt, and jobs whose uploads were never turned
+     * into chunks (node restarted while staging files).
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void sweep() {
+        for (String batchId : queue.failAbandoned()) {
+            log.warn("Batch {} has a chunk that exhausted its attempts", batchId);
+            finishIfDone(batchId);
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(stagingTimeoutMinutes);
+        List<BatchJob> staging = mongoTemplate.find(new Query(Criteria.where("status").is("PROCESSING")
+                .and("totalChunks").is(0).and("createdAt").lt(cutoff)), BatchJob.class);
+        for (BatchJob job : staging) {
+            if (!queue.hasTasks(job.getId())) {
+                log.warn("BatchJob {} was never queued, marking it FAILED", job.getId());
+                mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(job.getId()).and("status").is("PROCESSING")),
+                        new Update().set("status", "FAILED"), BatchJob.class);
+                batchProgressHub.finished(job.getId(), "FAILED", job.getProcessedResumes(), job.getTotalResumes());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        // Interrupted chunks go back to the queue; if the JVM exits first their leases expire and another node reclaims them
+        extractPool.shutdownNow();
+        scorePool.shutdownNow();
+        aggregator.shutdownNow();
+    }
+}
@@ -0,0 +1,202 @@
+package com.smartresume.service;
+
+import com.smartresume.model.BatchChunkTask;
+import com.smartresume.model.BatchJob;
+import com.smartresume.model.BatchResultRow;
+import com.smartresume.util.TopK;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Live leaderboards for batch jobs: the top size candidates overall for a SCREEN batch, and per JD
+ * for a PLACEMENT batch. Each chunk's rows are offered to bounded {@link TopK} heaps as the chunk
+ * finishes on this node, so a leaderboard can be read while the batch is still running. Before answering,
+ * a board pulls in the rows of finished chunks it has not seen (run on another node, or before a restart)
+ * from batch_results. Boards nobody has offered to or read for retention-minutes are dropped and rebuilt on demand.
+ */
+@Component
+public class BatchLeaderboard {
+
+    private final MongoTemplate mongoTemplate;
+    private final int size;
+    private final long retentionMs;
+    private final Map<String, Board> boards = new ConcurrentHashMap<>();
+
+    public BatchLeaderboard(MongoTemplate mongoTemplate,
+                            @Value("${batch.leaderboard.size:100}") int size,
+                            @Value("${batch.leaderboard.retention-minutes:30}") long retentionMinutes) {
+        this.mongoTemplate = mongoTemplate;
+        this.size = Math.max(1, size);
+        this.retentionMs = TimeUnit.MINUTES.toMillis(retentionMinutes);
+    }
+
+    private final class Board {
+        final boolean placement;
+        final TopK<Map<String, Object>> overall = new TopK<>(size);
+        final Map<String, TopK<Map<String, Object>>> byJd = new HashMap<>();
+        final BitSet seen = new BitSet();
+        boolean sealed;
+        volatile long lastUsed = System.currentTimeMillis();
+
+        Board(boolean placement) {
+            this.placement = placement;
+        }
+
+        void offer(List<Map<String, Object>> rows) {
+            for (Map<String, Object> row : rows) {
+                if (!placement) {
+                    double score = BatchResultStore.score(row);
+                    if (score > overall.threshold()) {
+                        overall.offer(score, row);
+                    }
+                } else if (row.get("matches") instanceof List<?> matches) {
+                    for (Object m : matches) {
+                        if (m instanceof Map<?, ?> match && match.get("matchScore") instanceof Number score) {
+                            TopK<Map<String, Object>> jdTop = byJd.computeIfAbsent(String.valueOf(match.get("jobId")), k -> new TopK<>(size));
+                            if (score.doubleValue() > jdTop.threshold()) {
+                                jdTop.offer(score.doubleValue(), entry(row, match));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Offers a finished chunk's rows. A chunk already offered (or caught up from Mongo) is ignored,
+     * as is any chunk once the board is sealed.
+     */
+    public void offer(BatchJob job, int seq, List<Map<String, Object>> rows) {
+        Board board = board(job);
+        synchronized (board) {
+            // A sealed board already holds every stored row, this chunk's included
+            if (!board.sealed && !board.seen.get(seq)) {
+                board.offer(rows);
+                board.seen.set(seq);
+            }
+        }
+    }
+
+    /**
+     * The current top n of a single-JD (SCREEN) batch.
+     */
+    public List<Map<String, Object>> top(BatchJob job, int n) {
+        Board board = board(job);
+        synchronized (board) {
+            catchUp(board, job);
+            return board.overall.top(Math.min(n, size));
+        }
+    }
+
+    /**
+     * The current top n per JD of a placement batch, keyed by JD id. jdId limits it to one JD.
+     */
+    public Map<String, List<Map<String, Object>>> topByJd(BatchJob job, String jdId, int n) {
+        Board board = board(job);
+        synchronized (board) {
+            catchUp(board, job);
+            Map<String, List<Map<String, Object>>> leaders = new LinkedHashMap<>();
+            for (Map.Entry<String, TopK<Map<String, Object>>> jd : board.byJd.entrySet()) {
+                if (jdId == null || jdId.equals(jd.getKey())) {
+                    leaders.put(jd.getKey(), jd.getValue().top(Math.min(n, size)));
+                }
+            }
+            return leaders;
+        }
+    }
+
+    private Board board(BatchJob job) {
+        Board board = boards.computeIfAbsent(job.getId(), k -> new Board("PLACEMENT".equals(job.getKind())));
+        board.lastUsed = System.currentTimeMillis();
+        return board;
+    }
+
+    /**
+     * Offers the stored rows of finished chunks the board has not seen. While the job runs only DONE
+     * chunks count (their rows are complete); once it is COMPLETED every stored row does, including
+     * fallback rows of failed chunks, and the board needs no further catching up. job only needs its
+     * counters: the legacy results array is read here, and only for a completed job with no stored rows.
+     */
+    private void catchUp(Board board, BatchJob job) {
+        if (board.sealed) {
+            return;
+        }
+        boolean completed = "COMPLETED".equals(job.getStatus());
+
+        List<Integer> missing = new ArrayList<>();
+        if (!completed) {
+            Query done = new Query(Criteria.where("batchId").is(job.getId()).and("status").is(BatchChunkTask.Status.DONE));
+            done.fields().include("seq");
+            for (BatchChunkTask task : mongoTemplate.find(done, BatchChunkTask.class)) {
+                if (!board.seen.get(task.getSeq())) {
+                    missing.add(task.getSeq());
+                }
+            }
+            if (missing.isEmpty()) {
+                return;
+            }
+        }
+
+        Criteria rows = Criteria.where("batchId").is(job.getId());
+        if (completed) {
+            rows = rows.and("seq").nin(board.seen.stream().boxed().toList());
+        } else {
+            rows = rows.and("seq").in(missing);
+        }
+        Query query = new Query(rows);
+        query.fields().include("seq", "data");
+        List<Map<String, Object>> data = new ArrayList<>();
+        BitSet loaded = new BitSet();
+        for (BatchResultRow row : mongoTemplate.find(query, BatchResultRow.class)) {
+            data.add(row.getData());
+            loaded.set(row.getSeq());
+        }
+        if (completed && data.isEmpty() && board.seen.isEmpty()) {
+            // No rows in batch_results: the job may have been saved before results moved there
+            data = legacyResults(job.getId());
+        }
+        board.offer(data);
+        missing.forEach(board.seen::set);
+        board.seen.or(loaded);
+        board.sealed = completed;
+    }
+
+    private List<Map<String, Object>> legacyResults(String batchId) {
+        Query query = new Query(Criteria.where("_id").is(batchId));
+        query.fields().include("results");
+        BatchJob legacy = mongoTemplate.findOne(query, BatchJob.class);
+        return legacy != null && legacy.getResults() != null ? legacy.getResults() : List.of();
+    }
+
+    private static Map<String, Object> entry(Map<String, Object> row, Map<?, ?> match) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("applicationId", row.get("applicationId"));
+        entry.put("candidateName", row.get("candidateName"));
+        entry.put("jobId", match.get("jobId"));
+        entry.put("matchScore", match.get("matchScore"));
+        entry.put("semanticScore", match.get("semanticScore"));
+        entry.put("keywordScore", match.get("keywordScore"));
+        entry.put("missingSkills", match.get("missingSkills"));
+        return entry;
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - retentionMs;
+        boards.values().removeIf(board -> board.lastUsed < cutoff);
+    }
+}
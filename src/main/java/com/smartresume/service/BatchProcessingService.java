@@ -1,262 +1,96 @@
 package com.smartresume.service;
 
+import com.mongodb.MongoException;
+import com.smartresume.model.BatchChunkTask;
 import com.smartresume.model.BatchJob;
 import com.smartresume.repository.BatchJobRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Batch screening and placement matrix jobs. The process* entry points persist the job's inputs and
+ * queue its chunks in {@link BatchChunkQueue}; {@link BatchChunkWorker} then extracts each chunk's
+ * resumes with {@link #itemText} and scores it with {@link #runChunk} on whichever node claims it.
+ * Progress is published to {@link BatchProgressHub}.
+ */
 @Service
 public class BatchProcessingService {
 
     private static final Logger log = LoggerFactory.getLogger(BatchProcessingService.class);
 
+    // Chunks keep each batch-analyze request under the ML service's request timeout
+    private static final int SCREEN_CHUNK_SIZE = 25;
+    private static final int TEXT_SCREEN_CHUNK_SIZE = 50;
+    private static final int PLACEMENT_CHUNK_SIZE = 50;
+
     @Autowired
     private BatchJobRepository batchJobRepository;
 
     @Autowired
+    @Qualifier("mlRestTemplate")
     private RestTemplate restTemplate;
 
     @Autowired
     private ResumeService resumeService;
 
+    @Autowired
+    private AtsCascade atsCascade;
+
+    @Autowired
+    private PlacementMatrixEngine placementMatrixEngine;
+
+    @Autowired
+    private BatchChunkQueue batchChunkQueue;
+
+    @Autowired
+    private BatchProgressHub batchProgressHub;
+
     @Value("${ml.service.url}")
     private String mlServiceUrl;
 
     @Value("${hf.api.token:}")
     private String hfApiToken;
 
-    @Async
     public void processBatch(String batchId, String jdText, List<String> resumeIds, Map<String, String> candidateNames) {
-        log.info("Starting async processing for BatchJob: {}", batchId);
-        
-        BatchJob job = batchJobRepository.findById(batchId).orElse(null);
-        if (job == null) {
-            log.error("BatchJob {} not found!", batchId);
-            return;
-        }
-
-        try {
-            // Because ML Service might timeout if we send 250 at once, we chunk them.
-            // Using 25 resumes per chunk with a 5s delay safely bypasses Render/Cloudflare 429 limits
-            int chunkSize = 25;
-            List<Map<String, Object>> allResults = new ArrayList<>();
-            
-            for (int i = 0; i < resumeIds.size(); i += chunkSize) {
-                int end = Math.min(i + chunkSize, resumeIds.size());
-                List<String> chunk = resumeIds.subList(i, end);
-                
-                List<Map<String, Object>> mlPayloadApps = new ArrayList<>();
-                for (String resId : chunk) {
-                    String resText = resumeService.extractTextFromResume(resId);
-                    Map<String, Object> appObj = new HashMap<>();
-                    appObj.put("applicationId", resId);
-                    appObj.put("resumeText", resText);
-                    appObj.put("jobDescription", jdText);
-                    mlPayloadApps.add(appObj);
-                }
-
-                // Send chunk to Python ML Service
-                String url = mlServiceUrl + "/api/ml/batch-analyze";
-                Map<String, Object> request = new HashMap<>();
-                request.put("jobId", batchId);
-                request.put("applications", mlPayloadApps);
-
-                try {
-                    org.springframework.http.HttpHeaders headers = new org.springframework.http.HttpHeaders();
-                    headers.setContentType(org.springframework.http.MediaType.APPLICATION_JSON);
-                    headers.set("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64)");
-                    if (hfApiToken != null && !hfApiToken.isEmpty()) {
-                        headers.set("Authorization", "Bearer " + hfApiToken);
-                    }
-                    org.springframework.http.HttpEntity<Map<String, Object>> entity = new org.springframework.http.HttpEntity<>(request, headers);
-                    ResponseEntity<Map> response = restTemplate.postForEntity(url, entity, Map.class);
-                    if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                        List<Map<String, Object>> chunkResults = (List<Map<String, Object>>) response.getBody().get("results");
-                        for (Map<String, Object> res : chunkResults) {
-                            String appId = (String) res.get("applicationId");
-                            res.put("candidateName", candidateNames.get(appId));
-                            allResults.add(res);
-                        }
-                    }
-                } catch (Exception mlEx) {
-                    log.error("ML Service failed for chunk {} to {}: {}", i, end, mlEx.getMessage());
-                    // Create fallback empty results for this chunk to prevent hanging
-                    for (String resId : chunk) {
-                        Map<String, Object> fallbackRes = new HashMap<>();
-                        fallbackRes.put("applicationId", resId);
-                        fallbackRes.put("candidateName", candidateNames.get(resId));
-                        fallbackRes.put("matchScore", 0);
-                        fallbackRes.put("missingSkills", new ArrayList<>());
-                        allResults.add(fallbackRes);
-                    }
-                }
-
-                // Update progress after chunk finishes
-                job.setProcessedResumes(end);
-                batchJobRepository.save(job);
-
-                // Add a delay between chunks to avoid hitting the ML Service rate limits (Cloudflare 429)
-                try {
-                    Thread.sleep(5000);
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                }
-            }
+        log.info("Queueing BatchJob {}: {} resumes.", batchId, resumeIds.size());
+        BatchJob job = findJob(batchId);
 
-            // All chunks processed
-            job.setStatus("COMPLETED");
-            
-            // Sort by match score highest first
-            allResults.sort((a, b) -> {
-                Number scoreA = (Number) a.get("matchScore");
-                Number scoreB = (Number) b.get("matchScore");
-                if (scoreA == null) scoreA = 0;
-                if (scoreB == null) scoreB = 0;
-                return Double.compare(scoreB.doubleValue(), scoreA.doubleValue());
-            });
-            
-            job.setResults(allResults);
-            batchJobRepository.save(job);
-            
-            log.info("BatchJob {} completed successfully.", batchId);
-
-        } catch (Exception e) {
-            log.error("Fatal error processing BatchJob {}: {}", batchId, e.getMessage(), e);
-            job.setStatus("FAILED");
-            batchJobRepository.save(job);
+        List<Map<String, String>> items = new ArrayList<>();
+        for (String resId : resumeIds) {
+            items.add(item(resId, candidateNames.get(resId), resId, null));
         }
+        job.setKind("SCREEN");
+        job.setJdText(jdText);
+        batchChunkQueue.enqueue(job, chunk(items, SCREEN_CHUNK_SIZE));
     }
 
-    @Async
     public void processPlacementBatch(String batchId, List<Map<String, String>> jds, List<String> resumeIds, Map<String, String> candidateNames) {
-        log.info("Starting async Placement Matrix processing for BatchJob: {}", batchId);
-        
-        BatchJob job = batchJobRepository.findById(batchId).orElse(null);
-        if (job == null) {
-            log.error("BatchJob {} not found!", batchId);
-            return;
-        }
+        log.info("Queueing Placement BatchJob {}: {} JDs x {} resumes.", batchId, jds.size(), resumeIds.size());
+        BatchJob job = findJob(batchId);
 
-        try {
-            int chunkSize = 25;
-            List<Map<String, Object>> allResults = new ArrayList<>();
-            
-            // Format JDs
-            List<Map<String, Object>> mlPayloadJds = new ArrayList<>();
-            for (Map<String, String> jd : jds) {
-                Map<String, Object> jdObj = new HashMap<>();
-                jdObj.put("jobId", jd.get("id"));
-                jdObj.put("jobDescriptionText", jd.get("text"));
-                mlPayloadJds.add(jdObj);
-            }
-            
-            int resumeChunkSize = 10;
-            int jdChunkSize = 5;
-            
-            for (int i = 0; i < resumeIds.size(); i += resumeChunkSize) {
-                int end = Math.min(i + resumeChunkSize, resumeIds.size());
-                List<String> chunk = resumeIds.subList(i, end);
-                
-                List<Map<String, Object>> mlPayloadApps = new ArrayList<>();
-                for (String resId : chunk) {
-                    try {
-                        String resText = resumeService.extractTextFromResume(resId);
-                        Map<String, Object> appObj = new HashMap<>();
-                        appObj.put("applicationId", resId);
-                        appObj.put("resumeText", resText);
-                        mlPayloadApps.add(appObj);
-                    } catch (Exception ex) {
-                        log.warn("Failed to extract text for {}: {}", resId, ex.getMessage());
-                    }
-                }
-
-                // Map to accumulate the matches for these 25 candidates across all JD chunks
-                Map<String, Map<String, Object>> candidateAggregatedResults = new HashMap<>();
-                
-                // 2D Chunking over JDs to prevent Python API timeouts
-                for (int j = 0; j < mlPayloadJds.size(); j += jdChunkSize) {
-                    int jdEnd = Math.min(j + jdChunkSize, mlPayloadJds.size());
-                    List<Map<String, Object>> jdChunk = mlPayloadJds.subList(j, jdEnd);
-                    
-                    String url = mlServiceUrl + "/api/ml/matrix-analyze";
-                    Map<String, Object> request = new HashMap<>();
-                    request.put("jobDescriptions", jdChunk);
-                    request.put("applications", mlPayloadApps);
-
-                    try {
-                        org.springframework.http.HttpHeaders headers = new org.springframework.http.HttpHeaders();
-                        headers.setContentType(org.springframework.http.MediaType.APPLICATION_JSON);
-                        headers.set("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64)");
-                        if (hfApiToken != null && !hfApiToken.isEmpty()) {
-                            headers.set("Authorization", "Bearer " + hfApiToken);
-                        }
-                        org.springframework.http.HttpEntity<Map<String, Object>> entity = new org.springframework.http.HttpEntity<>(request, headers);
-                        ResponseEntity<Map> response = restTemplate.postForEntity(url, entity, Map.class);
-                        if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                            List<Map<String, Object>> chunkResults = (List<Map<String, Object>>) response.getBody().get("results");
-                            
-                            for (Map<String, Object> res : chunkResults) {
-                                String appId = (String) res.get("applicationId");
-                                List<Map<String, Object>> matches = (List<Map<String, Object>>) res.get("matches");
-                                
-                                if (candidateAggregatedResults.containsKey(appId)) {
-                                    // Append matches to existing candidate
-                                    List<Map<String, Object>> existingMatches = (List<Map<String, Object>>) candidateAggregatedResults.get(appId).get("matches");
-                                    existingMatches.addAll(matches);
-                                } else {
-                                    // New candidate in this chunk: Ensure the matches list is strictly mutable
-                                    res.put("candidateName", candidateNames.get(appId));
-                                    res.put("matches", new ArrayList<>(matches));
-                                    candidateAggregatedResults.put(appId, res);
-                                }
-                            }
-                        }
-                    } catch (Exception mlEx) {
-                        log.error("ML Service matrix-analyze failed for resume chunk {} to {}, JD chunk {} to {}: {}", i, end, j, jdEnd, mlEx.getMessage());
-                    }
-                    
-                    try {
-                        Thread.sleep(700); // 700ms strictly caps throughput to ~85 req/min, preventing proxy limits
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                    }
-                }
-                
-                // Add the fully aggregated candidate matches to the final results list
-                allResults.addAll(candidateAggregatedResults.values());
-
-                job.setProcessedResumes(end);
-                batchJobRepository.save(job);
-
-                try {
-                    Thread.sleep(4000); // 4000ms buffer between chunks dramatically lowers average requests per minute
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                }
-            }
-
-            job.setStatus("COMPLETED");
-            job.setResults(allResults);
-            batchJobRepository.save(job);
-            log.info("Placement BatchJob {} completed successfully.", batchId);
-
-        } catch (Exception e) {
-            log.error("Fatal error processing Placement BatchJob {}: {}", batchId, e.getMessage(), e);
-            job.setStatus("FAILED");
-            batchJobRepository.save(job);
+        List<Map<String, String>> items = new ArrayList<>();
+        for (String resId : resumeIds) {
+            items.add(item(resId, candidateNames.get(resId), resId, null));
         }
+        job.setKind("PLACEMENT");
+        job.setJdTexts(jdTexts(jds, "id"));
+        batchChunkQueue.enqueue(job, chunk(items, PLACEMENT_CHUNK_SIZE));
     }
 
     @Async
@@ -272,23 +106,30 @@ public class BatchProcessingService {
         try {
             // 1. Store JDs to GridFS and Extract Text
             List<Map<String, String>> jdsData = new ArrayList<>();
+            List<Map<String, String>> jdsMetadata = new ArrayList<>();
             for (Map<String, String> jdInfo : tempJdFiles) {
                 java.io.File file = new java.io.File(jdInfo.get("path"));
                 if (file.exists()) {
                     com.smartresume.model.ResumeMeta jdMeta = resumeService.store(file, jdInfo.get("originalFilename"), jdInfo.get("contentType"), systemUser, "JD_DOC");
-                    String text = resumeService.extractTextFromResume(jdMeta.getId());
+                    String text = resumeService.extractTextFromResume(jdMeta.getId(), PdfTextExtractor.Strategy.PAGE_PARALLEL);
                     
                     Map<String, String> jdMap = new HashMap<>();
                     jdMap.put("id", jdMeta.getId());
                     jdMap.put("text", text);
                     jdMap.put("name", jdInfo.get("name"));
                     jdsData.add(jdMap);
+
+                    Map<String, String> meta = new HashMap<>();
+                    meta.put("id", jdMeta.getId());
+                    meta.put("name", jdInfo.get("name"));
+                    jdsMetadata.add(meta);
                     
                     file.delete(); // cleanup temp file
                 }
             }
             
-            job.setJds(jdsData);
+            // Only id/name for the frontend; the texts are stored once, as the job's jdTexts
+            job.setJds(jdsMetadata);
             batchJobRepository.save(job);
 
             // 2. Store Resumes to GridFS
@@ -306,308 +147,260 @@ public class BatchProcessingService {
                 }
             }
             
-            // 3. Delegate to the regular matrix processing method, removing the @Async wrapper to run in the same thread
-            // Wait, processPlacementBatch is @Async! If we call it from another @Async method inside the same class, Spring won't proxy it.
-            // It will run synchronously in this same background thread, which is exactly what we want!
+            // 3. Everything now lives in GridFS: queue the matrix chunks
             processPlacementBatch(batchId, jdsData, resumeIds, candidateNames);
             
         } catch (Exception e) {
             log.error("Fatal error processing Placement BatchJob from disk {}: {}", batchId, e.getMessage(), e);
             job.setStatus("FAILED");
             batchJobRepository.save(job);
+            batchProgressHub.finished(batchId, "FAILED", 0, job.getTotalResumes());
         }
     }
 
-    @Async
     public void processPlacementBatchFromText(String batchId, List<Map<String, String>> jds, List<Map<String, String>> resumes, com.smartresume.model.User systemUser) {
-        log.info("Starting async FAST Placement Matrix processing from text for BatchJob: {}", batchId);
-        
-        BatchJob job = batchJobRepository.findById(batchId).orElse(null);
-        if (job == null) {
-            log.error("BatchJob {} not found!", batchId);
-            return;
+        log.info("Queueing FAST Placement BatchJob {}: {} JDs x {} resumes.", batchId, jds.size(), resumes.size());
+        BatchJob job = findJob(batchId);
+
+        // Save JD metadata to job for frontend rendering; filenames double as ids in fast mode
+        List<Map<String, String>> jdsMetadata = new ArrayList<>();
+        for (Map<String, String> jd : jds) {
+            Map<String, String> meta = new HashMap<>();
+            meta.put("id", jd.get("filename"));
+            meta.put("name", jd.get("filename").replaceAll("(?i)\\.(pdf|txt|png|jpg|jpeg|doc|docx)$", ""));
+            jdsMetadata.add(meta);
         }
-
-        try {
-            List<Map<String, Object>> allResults = new ArrayList<>();
-            
-            // Format JDs payload and save to job for frontend rendering
-            List<Map<String, Object>> mlPayloadJds = new ArrayList<>();
-            List<Map<String, String>> jdsMetadata = new ArrayList<>();
-            for (Map<String, String> jd : jds) {
-                Map<String, Object> jdObj = new HashMap<>();
-                jdObj.put("jobId", jd.get("filename")); // Use filename as jobId for fast mode
-                jdObj.put("jobDescriptionText", jd.get("text"));
-                mlPayloadJds.add(jdObj);
-
-                Map<String, String> meta = new HashMap<>();
-                meta.put("id", jd.get("filename"));
-                meta.put("name", jd.get("filename").replaceAll("(?i)\\.(pdf|txt|png|jpg|jpeg|doc|docx)$", ""));
-                jdsMetadata.add(meta);
-            }
-            job.setJds(jdsMetadata);
-            batchJobRepository.save(job);
-            
-            int resumeChunkSize = 10;
-            int jdChunkSize = 5;
-            
-            for (int i = 0; i < resumes.size(); i += resumeChunkSize) {
-                int end = Math.min(i + resumeChunkSize, resumes.size());
-                List<Map<String, String>> chunk = resumes.subList(i, end);
-                
-                List<Map<String, Object>> mlPayloadApps = new ArrayList<>();
-                for (Map<String, String> res : chunk) {
-                    Map<String, Object> appObj = new HashMap<>();
-                    appObj.put("applicationId", res.get("filename")); // Use filename as app ID
-                    appObj.put("resumeText", res.get("text"));
-                    mlPayloadApps.add(appObj);
-                }
-
-                Map<String, Map<String, Object>> candidateAggregatedResults = new HashMap<>();
-                
-                for (int j = 0; j < mlPayloadJds.size(); j += jdChunkSize) {
-                    int jdEnd = Math.min(j + jdChunkSize, mlPayloadJds.size());
-                    List<Map<String, Object>> jdChunk = mlPayloadJds.subList(j, jdEnd);
-                    
-                    String url = mlServiceUrl + "/api/ml/matrix-analyze";
-                    Map<String, Object> request = new HashMap<>();
-                    request.put("jobDescriptions", jdChunk);
-                    request.put("applications", mlPayloadApps);
-
-                    try {
-                        org.springframework.http.HttpHeaders headers = new org.springframework.http.HttpHeaders();
-                        headers.setContentType(org.springframework.http.MediaType.APPLICATION_JSON);
-                        headers.set("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64)");
-                        if (hfApiToken != null && !hfApiToken.isEmpty()) {
-                            headers.set("Authorization", "Bearer " + hfApiToken);
-                        }
-                        org.springframework.http.HttpEntity<Map<String, Object>> entity = new org.springframework.http.HttpEntity<>(request, headers);
-                        ResponseEntity<Map> response = restTemplate.postForEntity(url, entity, Map.class);
-                        if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                            List<Map<String, Object>> chunkResults = (List<Map<String, Object>>) response.getBody().get("results");
-                            
-                            for (Map<String, Object> res : chunkResults) {
-                                String appId = (String) res.get("applicationId");
-                                List<Map<String, Object>> matches = (List<Map<String, Object>>) res.get("matches");
-                                
-                                if (candidateAggregatedResults.containsKey(appId)) {
-                                    List<Map<String, Object>> existingMatches = (List<Map<String, Object>>) candidateAggregatedResults.get(appId).get("matches");
-                                    existingMatches.addAll(matches);
-                                } else {
-                                    res.put("candidateName", appId); // Fallback name
-                                    res.put("matches", new ArrayList<>(matches));
-                                    candidateAggregatedResults.put(appId, res);
-                                }
-                            }
-                        }
-                    } catch (Exception mlEx) {
-                        log.error("ML Service matrix-analyze failed: {}", mlEx.getMessage());
-                    }
-                }
-                
-                allResults.addAll(candidateAggregatedResults.values());
-                job.setProcessedResumes(end);
-                batchJobRepository.save(job);
-            }
-
-            job.setStatus("COMPLETED");
-            job.setResults(allResults);
-            batchJobRepository.save(job);
-            log.info("FAST Placement BatchJob {} completed successfully.", batchId);
-
-        } catch (Exception e) {
-            log.error("Fatal error processing FAST Placement BatchJob {}: {}", batchId, e.getMessage(), e);
-            job.setStatus("FAILED");
-            batchJobRepository.save(job);
+        List<Map<String, String>> items = new ArrayList<>();
+        for (Map<String, String> res : resumes) {
+            items.add(item(res.get("filename"), res.get("filename"), null, res.get("text")));
         }
+        job.setKind("PLACEMENT");
+        job.setJds(jdsMetadata);
+        job.setJdTexts(jdTexts(jds, "filename"));
+        batchChunkQueue.enqueue(job, chunk(items, PLACEMENT_CHUNK_SIZE));
     }
 
     /**
      * Process a batch of pre-extracted text (no PDF uploads needed).
      * Browser parses PDFs locally and sends only text strings.
-     * This method chunks them and forwards to ML service.
+     * This method chunks them and queues the chunks for the ML service.
      */
-    @Async
     public void processTextBatch(String batchId, String jdText, List<Map<String, String>> resumeTexts) {
-        log.info("Starting TEXT-BASED async batch processing for BatchJob: {}. {} resumes.", batchId, resumeTexts.size());
+        log.info("Queueing TEXT-BASED BatchJob {}: {} resumes.", batchId, resumeTexts.size());
+        BatchJob job = findJob(batchId);
 
-        BatchJob job = batchJobRepository.findById(batchId).orElse(null);
-        if (job == null) {
-            log.error("BatchJob {} not found!", batchId);
-            return;
+        List<Map<String, String>> items = new ArrayList<>();
+        for (Map<String, String> resume : resumeTexts) {
+            items.add(item(resume.get("candidateName"), resume.get("candidateName"), null, resume.get("text")));
         }
+        job.setKind("SCREEN");
+        job.setJdText(jdText);
+        batchChunkQueue.enqueue(job, chunk(items, TEXT_SCREEN_CHUNK_SIZE));
+    }
 
-        try {
-            int chunkSize = 50;
-            List<Map<String, Object>> allResults = new ArrayList<>();
-
-            for (int i = 0; i < resumeTexts.size(); i += chunkSize) {
-                int end = Math.min(i + chunkSize, resumeTexts.size());
-                List<Map<String, String>> chunk = resumeTexts.subList(i, end);
-
-                List<Map<String, Object>> mlPayloadApps = new ArrayList<>();
-                for (Map<String, String> resume : chunk) {
-                    Map<String, Object> appObj = new HashMap<>();
-                    appObj.put("applicationId", resume.get("candidateName"));
-                    appObj.put("resumeText", resume.get("text"));
-                    appObj.put("jobDescription", jdText);
-                    mlPayloadApps.add(appObj);
-                }
+    /**
+     * Process a many-to-many placement matrix from pre-extracted text.
+     * Browser parses PDFs locally and sends text strings for both JDs and resumes.
+     */
+    public void processTextPlacementBatch(String batchId, List<Map<String, String>> jdTexts, List<Map<String, String>> resumeTexts) {
+        log.info("Queueing TEXT-BASED Placement BatchJob {}: {} JDs x {} resumes.", batchId, jdTexts.size(), resumeTexts.size());
+        BatchJob job = findJob(batchId);
+
+        List<Map<String, String>> jdsMetadata = new ArrayList<>();
+        for (Map<String, String> jd : jdTexts) {
+            Map<String, String> meta = new HashMap<>();
+            meta.put("id", jd.get("name"));
+            meta.put("name", jd.get("name"));
+            jdsMetadata.add(meta);
+        }
+        List<Map<String, String>> items = new ArrayList<>();
+        for (Map<String, String> resume : resumeTexts) {
+            items.add(item(resume.get("candidateName"), resume.get("candidateName"), null, resume.get("text")));
+        }
+        job.setKind("PLACEMENT");
+        job.setJds(jdsMetadata);
+        job.setJdTexts(jdTexts(jdTexts, "name"));
+        batchChunkQueue.enqueue(job, chunk(items, PLACEMENT_CHUNK_SIZE));
+    }
 
-                String url = mlServiceUrl + "/api/ml/batch-analyze";
-                Map<String, Object> request = new HashMap<>();
-                request.put("jobId", batchId);
-                request.put("applications", mlPayloadApps);
-
-                log.info("Sending text chunk {}-{} of {} to ML Service...", i + 1, end, resumeTexts.size());
-
-                try {
-                    org.springframework.http.HttpHeaders headers = new org.springframework.http.HttpHeaders();
-                    headers.setContentType(org.springframework.http.MediaType.APPLICATION_JSON);
-                    headers.set("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64)");
-                    if (hfApiToken != null && !hfApiToken.isEmpty()) {
-                        headers.set("Authorization", "Bearer " + hfApiToken);
-                    }
-                    org.springframework.http.HttpEntity<Map<String, Object>> entity = new org.springframework.http.HttpEntity<>(request, headers);
-                    ResponseEntity<Map> response = restTemplate.postForEntity(url, entity, Map.class);
-                    if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                        List<Map<String, Object>> chunkResults = (List<Map<String, Object>>) response.getBody().get("results");
-                        for (Map<String, Object> res : chunkResults) {
-                            res.put("candidateName", res.get("applicationId"));
-                            allResults.add(res);
-                        }
-                        log.info("Chunk {}-{} processed successfully by ML Service.", i + 1, end);
-                    }
-                } catch (Exception mlEx) {
-                    log.error("ML Service failed for text chunk {} to {}: {}", i, end, mlEx.getMessage());
-                    for (Map<String, String> resume : chunk) {
-                        Map<String, Object> fallbackRes = new HashMap<>();
-                        fallbackRes.put("applicationId", resume.get("candidateName"));
-                        fallbackRes.put("candidateName", resume.get("candidateName"));
-                        fallbackRes.put("matchScore", 0);
-                        fallbackRes.put("missingSkills", new ArrayList<>());
-                        allResults.add(fallbackRes);
-                    }
-                }
+    /**
+     * Scores one chunk task. ML failures (batch-analyze, or embeddings for a PLACEMENT chunk) are thrown
+     * so the queue retries the chunk; see {@link BatchChunkQueue#release}.
+     *
+     * @param texts resume text of each of the task's items, in item order (see {@link #itemText})
+     */
+    public List<Map<String, Object>> runChunk(BatchJob job, BatchChunkTask task, List<String> texts) {
+        Map<String, String> candidateNames = new HashMap<>();
+        for (Map<String, String> item : task.getItems()) {
+            candidateNames.put(item.get("applicationId"), item.get("candidateName"));
+        }
 
-                job.setProcessedResumes(end);
-                batchJobRepository.save(job);
-                // No delay needed — HF Spaces has no Cloudflare rate limiting
+        List<Map<String, Object>> rows;
+        if ("PLACEMENT".equals(job.getKind())) {
+            List<PlacementMatrixEngine.Document> jdDocs = new ArrayList<>();
+            for (Map<String, String> jd : job.getJdTexts()) {
+                jdDocs.add(new PlacementMatrixEngine.Document(jd.get("id"), jd.get("text")));
             }
-
-            job.setStatus("COMPLETED");
-            allResults.sort((a, b) -> {
-                Number scoreA = (Number) a.get("matchScore");
-                Number scoreB = (Number) b.get("matchScore");
-                if (scoreA == null) scoreA = 0;
-                if (scoreB == null) scoreB = 0;
-                return Double.compare(scoreB.doubleValue(), scoreA.doubleValue());
-            });
-            job.setResults(allResults);
-            batchJobRepository.save(job);
-            log.info("TEXT-BASED BatchJob {} completed successfully. {} resumes processed.", batchId, allResults.size());
-
-        } catch (Exception e) {
-            log.error("Fatal error processing TEXT-BASED BatchJob {}: {}", batchId, e.getMessage(), e);
-            job.setStatus("FAILED");
-            batchJobRepository.save(job);
+            List<PlacementMatrixEngine.Document> resumeDocs = new ArrayList<>();
+            for (int i = 0; i < task.getItems().size(); i++) {
+                resumeDocs.add(new PlacementMatrixEngine.Document(task.getItems().get(i).get("applicationId"), texts.get(i)));
+            }
+            rows = MLLane.callAs(MLLane.BATCH, () -> placementMatrixEngine.score(jdDocs, resumeDocs));
+        } else {
+            List<Map<String, Object>> apps = new ArrayList<>();
+            for (int i = 0; i < task.getItems().size(); i++) {
+                Map<String, Object> appObj = new HashMap<>();
+                appObj.put("applicationId", task.getItems().get(i).get("applicationId"));
+                appObj.put("resumeText", texts.get(i));
+                appObj.put("jobDescription", job.getJdText());
+                apps.add(appObj);
+            }
+            rows = scoreChunk(job.getId(), apps);
         }
+        for (Map<String, Object> res : rows) {
+            res.put("candidateName", candidateNames.get(res.get("applicationId")));
+        }
+        log.info("Chunk {} of BatchJob {} scored: {} results.", task.getSeq(), job.getId(), rows.size());
+        return rows;
     }
 
     /**
-     * Process a many-to-many placement matrix from pre-extracted text.
-     * Browser parses PDFs locally and sends text strings for both JDs and resumes.
+     * Result rows for a chunk that failed on every attempt, so the job still completes.
      */
-    @Async
-    public void processTextPlacementBatch(String batchId, List<Map<String, String>> jdTexts, List<Map<String, String>> resumeTexts) {
-        log.info("Starting TEXT-BASED Placement Matrix for BatchJob: {}. {} JDs x {} resumes.", batchId, jdTexts.size(), resumeTexts.size());
+    public List<Map<String, Object>> fallbackRows(BatchJob job, BatchChunkTask task) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Map<String, String> item : task.getItems()) {
+            Map<String, Object> fallbackRes = new HashMap<>();
+            fallbackRes.put("applicationId", item.get("applicationId"));
+            fallbackRes.put("candidateName", item.get("candidateName"));
+            if ("PLACEMENT".equals(job.getKind())) {
+                fallbackRes.put("matches", new ArrayList<>());
+            } else {
+                fallbackRes.put("matchScore", 0);
+                fallbackRes.put("missingSkills", new ArrayList<>());
+            }
+            rows.add(fallbackRes);
+        }
+        return rows;
+    }
 
-        BatchJob job = batchJobRepository.findById(batchId).orElse(null);
-        if (job == null) {
-            log.error("BatchJob {} not found!", batchId);
-            return;
+    private BatchJob findJob(String batchId) {
+        return batchJobRepository.findById(batchId)
+                .orElseThrow(() -> new RuntimeException("BatchJob " + batchId + " not found"));
+    }
+
+    private static Map<String, String> item(String applicationId, String candidateName, String resumeId, String text) {
+        Map<String, String> item = new HashMap<>();
+        item.put("applicationId", applicationId);
+        item.put("candidateName", candidateName);
+        if (resumeId != null) item.put("resumeId", resumeId);
+        if (text != null) item.put("text", text);
+        return item;
+    }
+
+    private static List<Map<String, String>> jdTexts(List<Map<String, String>> jds, String idKey) {
+        List<Map<String, String>> texts = new ArrayList<>();
+        for (Map<String, String> jd : jds) {
+            Map<String, String> entry = new HashMap<>();
+            entry.put("id", jd.get(idKey));
+            entry.put("text", jd.get("text"));
+            texts.add(entry);
         }
+        return texts;
+    }
 
-        try {
-            // Format JDs for ML
-            List<Map<String, Object>> mlPayloadJds = new ArrayList<>();
-            List<Map<String, String>> jdsMetadata = new ArrayList<>();
-            for (Map<String, String> jd : jdTexts) {
-                Map<String, Object> jdObj = new HashMap<>();
-                jdObj.put("jobId", jd.get("name"));
-                jdObj.put("jobDescriptionText", jd.get("text"));
-                mlPayloadJds.add(jdObj);
-
-                Map<String, String> meta = new HashMap<>();
-                meta.put("id", jd.get("name"));
-                meta.put("name", jd.get("name"));
-                jdsMetadata.add(meta);
-            }
+    private static List<List<Map<String, String>>> chunk(List<Map<String, String>> items, int chunkSize) {
+        List<List<Map<String, String>>> chunks = new ArrayList<>();
+        for (int i = 0; i < items.size(); i += chunkSize) {
+            chunks.add(new ArrayList<>(items.subList(i, Math.min(i + chunkSize, items.size()))));
+        }
+        return chunks;
+    }
 
-            int chunkSize = 50;
-            List<Map<String, Object>> allResults = new ArrayList<>();
+    /**
+     * A chunk item's resume text: sent inline by the browser, or extracted from GridFS.
+     * A resume that is gone or cannot be parsed is scored as empty. OCR load shedding and I/O or
+     * Mongo errors are thrown instead, so the chunk is released and retried after a backoff rather
+     * than recording a permanent 0.
+     */
+    public String itemText(Map<String, String> item) {
+        return item.containsKey("text") ? item.get("text") : extractForBatch(item.get("resumeId"));
+    }
 
-            for (int i = 0; i < resumeTexts.size(); i += chunkSize) {
-                int end = Math.min(i + chunkSize, resumeTexts.size());
-                List<Map<String, String>> chunk = resumeTexts.subList(i, end);
+    private String extractForBatch(String resumeId) {
+        try {
+            return resumeService.extractTextFromResume(resumeId, PdfTextExtractor.Strategy.PAGE_PARALLEL);
+        } catch (OcrEngine.OcrCapacityExceededException | DataAccessException | MongoException ex) {
+            throw ex;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not read resume " + resumeId, ex);
+        } catch (Exception ex) {
+            // Scored as an empty resume instead of failing the whole batch
+            log.warn("Failed to extract text for {}: {}", resumeId, ex.getMessage());
+            return "";
+        }
+    }
 
-                List<Map<String, Object>> mlPayloadApps = new ArrayList<>();
-                for (Map<String, String> resume : chunk) {
-                    Map<String, Object> appObj = new HashMap<>();
-                    appObj.put("applicationId", resume.get("candidateName"));
-                    appObj.put("resumeText", resume.get("text"));
-                    mlPayloadApps.add(appObj);
-                }
+    /**
+     * Scores one single-JD chunk: prefilter-decided rows plus batch-analyze results for the uncertain rest.
+     * An ML failure is thrown, failing the whole chunk.
+     */
+    private List<Map<String, Object>> scoreChunk(String batchId, List<Map<String, Object>> apps) {
+        // Clear passes/rejects are scored locally, only the uncertain band goes to the ML service
+        List<Map<String, Object>> rows = new ArrayList<>();
+        List<Map<String, Object>> mlPayloadApps = prefilter(apps, rows);
+        if (mlPayloadApps.isEmpty()) {
+            return rows;
+        }
 
-                String url = mlServiceUrl + "/api/ml/matrix-analyze";
-                Map<String, Object> request = new HashMap<>();
-                request.put("jobDescriptions", mlPayloadJds);
-                request.put("applications", mlPayloadApps);
-
-                log.info("Sending placement text chunk {}-{} of {} to ML Service...", i + 1, end, resumeTexts.size());
-
-                try {
-                    org.springframework.http.HttpHeaders headers = new org.springframework.http.HttpHeaders();
-                    headers.setContentType(org.springframework.http.MediaType.APPLICATION_JSON);
-                    headers.set("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64)");
-                    if (hfApiToken != null && !hfApiToken.isEmpty()) {
-                        headers.set("Authorization", "Bearer " + hfApiToken);
-                    }
-                    org.springframework.http.HttpEntity<Map<String, Object>> entity = new org.springframework.http.HttpEntity<>(request, headers);
-                    ResponseEntity<Map> response = restTemplate.postForEntity(url, entity, Map.class);
-                    if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                        List<Map<String, Object>> chunkResults = (List<Map<String, Object>>) response.getBody().get("results");
-                        for (Map<String, Object> res : chunkResults) {
-                            res.put("candidateName", res.get("applicationId"));
-                            allResults.add(res);
-                        }
-                        log.info("Placement chunk {}-{} processed successfully.", i + 1, end);
-                    }
-                } catch (Exception mlEx) {
-                    log.error("ML Service failed for placement chunk {} to {}: {}", i, end, mlEx.getMessage());
-                    for (Map<String, String> resume : chunk) {
-                        Map<String, Object> fallbackRes = new HashMap<>();
-                        fallbackRes.put("applicationId", resume.get("candidateName"));
-                        fallbackRes.put("candidateName", resume.get("candidateName"));
-                        fallbackRes.put("matches", new ArrayList<>());
-                        allResults.add(fallbackRes);
-                    }
-                }
+        String url = mlServiceUrl + "/api/ml/batch-analyze";
+        Map<String, Object> request = new HashMap<>();
+        request.put("jobId", batchId);
+        request.put("applications", mlPayloadApps);
 
-                job.setProcessedResumes(end);
-                batchJobRepository.save(job);
-            }
+        log.info("Sending chunk of {} resumes to ML Service ({} decided by prefilter)...", mlPayloadApps.size(), rows.size());
 
-            job.setStatus("COMPLETED");
-            job.setJds(jdsMetadata);
-            job.setResults(allResults);
-            batchJobRepository.save(job);
-            log.info("TEXT-BASED Placement BatchJob {} completed successfully.", batchId);
+        try {
+            org.springframework.http.HttpHeaders headers = new org.springframework.http.HttpHeaders();
+            headers.setContentType(org.springframework.http.MediaType.APPLICATION_JSON);
+            headers.set("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64)");
+            headers.set(MLLane.HEADER, MLLane.BATCH.name());
+            if (hfApiToken != null && !hfApiToken.isEmpty()) {
+                headers.set("Authorization", "Bearer " + hfApiToken);
+            }
+            org.springframework.http.HttpEntity<Map<String, Object>> entity = new org.springframework.http.HttpEntity<>(request, headers);
+            ResponseEntity<Map> response = restTemplate.postForEntity(url, entity, Map.class);
+            if (response.getStatusCode() != HttpStatus.OK || response.getBody() == null) {
+                throw new RuntimeException("ML batch-analyze returned " + response.getStatusCode());
+            }
+            List<Map<String, Object>> chunkResults = (List<Map<String, Object>>) response.getBody().get("results");
+            for (Map<String, Object> res : chunkResults) {
+                res.put("decidedBy", AtsCascade.Stage.ML.name());
+                rows.add(res);
+            }
+        } catch (RuntimeException mlEx) {
+            // Thrown so the queue retries the chunk after a backoff; zero-score rows are only written
+            // for chunks that used up their attempts (see fallbackRows)
+            log.error("ML Service failed for a chunk of {} resumes in batch {}: {}", mlPayloadApps.size(), batchId, mlEx.getMessage());
+            throw mlEx;
+        }
+        return rows;
+    }
 
-        } catch (Exception e) {
-            log.error("Fatal error processing TEXT-BASED Placement BatchJob {}: {}", batchId, e.getMessage(), e);
-            job.setStatus("FAILED");
-            batchJobRepository.save(job);
+    /**
+     * First stage of the ATS cascade for a single-JD chunk. Candidates the local skill-overlap score
+     * decides are added to decided as finished result rows; the uncertain rest is returned for batch-analyze.
+     */
+    private List<Map<String, Object>> prefilter(List<Map<String, Object>> apps, List<Map<String, Object>> decided) {
+        List<Map<String, Object>> uncertain = new ArrayList<>();
+        for (Map<String, Object> app : apps) {
+            AtsCascade.Screen screen = atsCascade.screen((String) app.get("resumeText"), (String) app.get("jobDescription"));
+            if (screen.decided()) {
+                decided.add(AtsCascade.batchRow(app.get("applicationId"), screen.local()));
+            } else {
+                uncertain.add(app);
+            }
         }
+        return uncertain;
     }
 }
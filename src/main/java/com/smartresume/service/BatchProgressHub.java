@@ -0,0 +1,209 @@
+package com.smartresume.service;
+
+import com.smartresume.model.BatchJob;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server-sent event streams for batch jobs. Batch code on this node publishes progress as chunks
+ * finish, so watchers get "progress" (counters and status) and "chunk" (that chunk's result rows)
+ * events without reading the job back from Mongo. Only the first event of a stream is read from Mongo.
+ * Chunks that ran, and jobs that finished, on another node are picked up by a resync: watched jobs
+ * are re-read, all in one counters-only query, every resync-ms, and closed once Mongo shows them done.
+ */
+@Component
+@Slf4j
+public class BatchProgressHub {
+
+    private final MongoTemplate mongoTemplate;
+    private final long sseTimeoutMs;
+    private final Map<String, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService resync;
+
+    public BatchProgressHub(MongoTemplate mongoTemplate,
+                            @Value("${batch.events.sse-timeout-ms:1800000}") long sseTimeoutMs,
+                            @Value("${batch.events.resync-ms:5000}") long resyncMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.sseTimeoutMs = sseTimeoutMs;
+        if (resyncMs > 0) {
+            this.resync = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "batch-events-resync");
+                t.setDaemon(true);
+                return t;
+            });
+            resync.scheduleWithFixedDelay(this::resync, resyncMs, resyncMs, TimeUnit.MILLISECONDS);
+        } else {
+            this.resync = null;
+        }
+    }
+
+    /**
+     * Streams the job's events until it completes or fails. The stream opens with the job's current
+     * counters and JD names.
+     */
+    public SseEmitter subscribe(String batchId) {
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        // Registered before the snapshot is read, so an update racing with it is still delivered
+        subscribers.compute(batchId, (k, list) -> {
+            List<SseEmitter> emitters = list != null ? list : new CopyOnWriteArrayList<>();
+            emitters.add(emitter);
+            return emitters;
+        });
+        emitter.onCompletion(() -> unsubscribe(batchId, emitter));
+        emitter.onTimeout(() -> unsubscribe(batchId, emitter));
+        emitter.onError(e -> unsubscribe(batchId, emitter));
+
+        BatchJob job = snapshot(batchId);
+        if (job == null) {
+            unsubscribe(batchId, emitter);
+            send(emitter, "progress", Map.of("batchId", batchId, "status", "NOT_FOUND"));
+            emitter.complete();
+            return emitter;
+        }
+        Map<String, Object> progress = progress(job);
+        progress.put("jds", job.getJds());
+        if (send(emitter, "progress", progress) && isTerminal(job.getStatus())) {
+            unsubscribe(batchId, emitter);
+            emitter.complete();
+        }
+        return emitter;
+    }
+
+    /**
+     * The job's counters and JD names, without its JD texts or any legacy embedded results; null if it does not exist.
+     */
+    public BatchJob snapshot(String batchId) {
+        Query snapshot = countersOf(Criteria.where("_id").is(batchId));
+        snapshot.fields().include("jds");
+        return mongoTemplate.findOne(snapshot, BatchJob.class);
+    }
+
+    /**
+     * A chunk's rows were stored; job carries the counters after this chunk was counted.
+     */
+    public void chunkDone(BatchJob job, int seq, List<Map<String, Object>> rows) {
+        List<SseEmitter> list = subscribers.get(job.getId());
+        if (list == null || list.isEmpty()) {
+            return;
+        }
+        Map<String, Object> chunk = new LinkedHashMap<>();
+        chunk.put("batchId", job.getId());
+        chunk.put("seq", seq);
+        chunk.put("results", rows);
+        Map<String, Object> progress = progress(job);
+        for (SseEmitter emitter : list) {
+            if (send(emitter, "chunk", chunk)) {
+                send(emitter, "progress", progress);
+            }
+        }
+    }
+
+    /**
+     * The job reached COMPLETED or FAILED: sends the final counters and closes its streams.
+     */
+    public void finished(String batchId, String status, int processedResumes, int totalResumes) {
+        List<SseEmitter> list = subscribers.remove(batchId);
+        if (list == null) {
+            return;
+        }
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("batchId", batchId);
+        progress.put("status", status);
+        progress.put("processedResumes", processedResumes);
+        progress.put("totalResumes", totalResumes);
+        for (SseEmitter emitter : list) {
+            if (send(emitter, "progress", progress)) {
+                emitter.complete();
+            }
+        }
+    }
+
+    private void resync() {
+        try {
+            if (subscribers.isEmpty()) {
+                return;
+            }
+            for (BatchJob job : mongoTemplate.find(countersOf(Criteria.where("_id").in(subscribers.keySet())), BatchJob.class)) {
+                if (isTerminal(job.getStatus())) {
+                    finished(job.getId(), job.getStatus(), job.getProcessedResumes(), job.getTotalResumes());
+                    continue;
+                }
+                List<SseEmitter> list = subscribers.get(job.getId());
+                if (list != null) {
+                    Map<String, Object> progress = progress(job);
+                    for (SseEmitter emitter : list) {
+                        send(emitter, "progress", progress);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Batch progress resync failed: {}", e.getMessage());
+        }
+    }
+
+    private void unsubscribe(String batchId, SseEmitter emitter) {
+        subscribers.computeIfPresent(batchId, (k, list) -> {
+            list.remove(emitter);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    /**
+     * Query for a job's counters only, leaving out its JD texts and any legacy embedded results.
+     */
+    static Query countersOf(Criteria criteria) {
+        Query query = new Query(criteria);
+        query.fields().include("status", "kind", "processedResumes", "totalResumes", "totalJds", "totalChunks");
+        return query;
+    }
+
+    private static Map<String, Object> progress(BatchJob job) {
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("batchId", job.getId());
+        progress.put("status", job.getStatus());
+        progress.put("kind", job.getKind());
+        progress.put("processedResumes", job.getProcessedResumes());
+        progress.put("totalResumes", job.getTotalResumes());
+        progress.put("totalJds", job.getTotalJds());
+        progress.put("totalChunks", job.getTotalChunks());
+        return progress;
+    }
+
+    private static boolean isTerminal(String status) {
+        return "COMPLETED".equals(status) || "FAILED".equals(status);
+    }
+
+    private static boolean send(SseEmitter emitter, String name, Map<String, Object> data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the emitter's error callback unregisters it
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (resync != null) {
+            resync.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.smartresume.service;
+
+import com.smartresume.model.BatchJob;
+import com.smartresume.model.BatchResultRow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Batch job results, stored one {@link BatchResultRow} per candidate instead of inside the
+ * {@link BatchJob} document. Rows are written with one unordered bulk request per chunk and read
+ * back a page at a time, best score first.
+ */
+@Component
+public class BatchResultStore {
+
+    /** A page of result rows (size is the effective, capped page size) and the job's total row count */
+    public record Page(int page, int size, long total, List<Map<String, Object>> rows) {
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final int maxPageSize;
+
+    public BatchResultStore(MongoTemplate mongoTemplate,
+                            @Value("${batch.results.max-page-size:500}") int maxPageSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.maxPageSize = Math.max(1, maxPageSize);
+    }
+
+    /**
+     * Upserts a chunk's rows. Idempotent: rewriting the same chunk replaces its rows, and rows left
+     * over from an earlier attempt that produced more of them are removed.
+     */
+    public void write(String batchId, int seq, List<Map<String, Object>> rows) {
+        if (!rows.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, BatchResultRow.class);
+            for (int i = 0; i < rows.size(); i++) {
+                BatchResultRow row = toRow(batchId, seq, i, rows.get(i));
+                bulk.replaceOne(new Query(Criteria.where("_id").is(row.getId())), row,
+                        FindAndReplaceOptions.options().upsert());
+            }
+            bulk.execute();
+        }
+        mongoTemplate.remove(new Query(Criteria.where("batchId").is(batchId)
+                .and("seq").is(seq).and("index").gte(rows.size())), BatchResultRow.class);
+    }
+
+    /**
+     * One page of a job's rows, highest matchScore first. Jobs finished before results moved to
+     * their own collection still carry them on the job document and are paged in memory.
+     */
+    public Page page(BatchJob job, int page, int size) {
+        int pageNumber = Math.max(0, page);
+        int pageSize = Math.min(Math.max(1, size), maxPageSize);
+        long skip = (long) pageNumber * pageSize;
+
+        if (job.getResults() != null && !job.getResults().isEmpty()) {
+            List<Map<String, Object>> legacy = new ArrayList<>(job.getResults());
+            legacy.sort((a, b) -> Double.compare(score(b), score(a)));
+            int from = (int) Math.min(skip, legacy.size());
+            int to = Math.min(from + pageSize, legacy.size());
+            return new Page(pageNumber, pageSize, legacy.size(), legacy.subList(from, to));
+        }
+
+        long total = mongoTemplate.count(new Query(Criteria.where("batchId").is(job.getId())), BatchResultRow.class);
+        Query pageQuery = new Query(Criteria.where("batchId").is(job.getId()))
+                .with(Sort.by(Sort.Order.desc("matchScore"), Sort.Order.asc("_id")))
+                .skip(skip)
+                .limit(pageSize);
+        pageQuery.fields().include("data");
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (BatchResultRow row : mongoTemplate.find(pageQuery, BatchResultRow.class)) {
+            rows.add(row.getData());
+        }
+        return new Page(pageNumber, pageSize, total, rows);
+    }
+
+    private static BatchResultRow toRow(String batchId, int seq, int index, Map<String, Object> data) {
+        Object applicationId = data.get("applicationId");
+        Object candidateName = data.get("candidateName");
+        return new BatchResultRow(batchId + ":" + seq + ":" + index, batchId, seq, index,
+                applicationId != null ? applicationId.toString() : null,
+                candidateName != null ? candidateName.toString() : null,
+                score(data), data);
+    }
+
+    /**
+     * A row's ranking score: matchScore for single-JD rows, the best match for placement rows.
+     */
+    static double score(Map<String, Object> row) {
+        if (row.get("matchScore") instanceof Number score) {
+            return score.doubleValue();
+        }
+        double best = 0;
+        if (row.get("matches") instanceof List<?> matches) {
+            for (Object match : matches) {
+                if (match instanceof Map<?, ?> m && m.get("matchScore") instanceof Number score) {
+                    best = Math.max(best, score.doubleValue());
+                }
+            }
+        }
+        return best;
+    }
+}
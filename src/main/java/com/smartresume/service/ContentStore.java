@@ -0,0 +1,94 @@
+package com.smartresume.service;
+
+import com.smartresume.model.ContentBlob;
+import com.smartresume.util.Hashing;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+
+/**
+ * Content-addressable, reference-counted GridFS storage.
+ * Uploads are digested while streaming from the local temp copy; bytes that were stored before only
+ * bump the blob's reference count instead of writing a second GridFS file. Stored resumes are never
+ * deleted today, so nothing drops references yet; the count is what a future delete path releases.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ContentStore {
+
+    private final MongoTemplate mongoTemplate;
+    private final GridFsTemplate gridFsTemplate;
+
+    /**
+     * Source of the upload bytes; it is opened once for the digest and once more only if the blob is new.
+     */
+    @FunctionalInterface
+    public interface ContentSource {
+        InputStream open() throws IOException;
+    }
+
+    /**
+     * Reference to a stored blob handed back to the caller.
+     */
+    public record StoredContent(String contentHash, String gridFsId, boolean deduplicated) {
+    }
+
+    public StoredContent store(ContentSource source, String filename, String contentType, long size) throws IOException {
+        String contentHash = digest(source);
+
+        ContentBlob existing = incrementRefCount(contentHash);
+        if (existing != null) {
+            log.debug("Deduplicated upload {} onto blob {}", filename, contentHash);
+            return new StoredContent(contentHash, existing.getGridFsId(), true);
+        }
+
+        ObjectId gridId;
+        try (InputStream inputStream = source.open()) {
+            gridId = gridFsTemplate.store(inputStream, filename, contentType);
+        }
+        try {
+            mongoTemplate.insert(new ContentBlob(contentHash, gridId.toHexString(), size, 1, LocalDateTime.now()));
+            return new StoredContent(contentHash, gridId.toHexString(), false);
+        } catch (DuplicateKeyException e) {
+            // A concurrent upload of the same bytes won the insert: drop our copy and share theirs
+            gridFsTemplate.delete(new Query(Criteria.where("_id").is(gridId)));
+            ContentBlob winner = incrementRefCount(contentHash);
+            if (winner == null) {
+                throw new IllegalStateException("Content blob " + contentHash + " vanished during upload");
+            }
+            return new StoredContent(contentHash, winner.getGridFsId(), true);
+        }
+    }
+
+    private ContentBlob incrementRefCount(String contentHash) {
+        return mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is(contentHash)),
+                new Update().inc("refCount", 1),
+                FindAndModifyOptions.options().returnNew(true),
+                ContentBlob.class);
+    }
+
+    private static String digest(ContentSource source) throws IOException {
+        MessageDigest digest = Hashing.newSha256();
+        try (InputStream inputStream = new DigestInputStream(source.open(), digest)) {
+            inputStream.transferTo(OutputStream.nullOutputStream());
+        }
+        return Hashing.toHex(digest.digest());
+    }
+}
@@ -0,0 +1,184 @@
+package com.smartresume.service;
+
+import com.smartresume.model.TextEmbedding;
+import com.smartresume.repository.TextEmbeddingRepository;
+import com.smartresume.util.Hashing;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sentence embeddings per document, fetched once from the ML service's /api/ml/embed and kept as
+ * unit-length float arrays: a bounded in-heap LRU in front of the "text_embeddings" Mongo collection.
+ * Keys are the SHA-256 of the whitespace-normalised text plus the ML model version, as for
+ * {@link MatchResultCache}, so the same resume or JD is never embedded twice.
+ */
+@Component
+@Slf4j
+public class EmbeddingStore {
+
+    private final TextEmbeddingRepository textEmbeddingRepository;
+    private final RestTemplate restTemplate;
+    private final String mlServiceUrl;
+    private final String hfApiToken;
+    private final String modelVersion;
+    private final int requestSize;
+    private final Map<String, float[]> heapCache;
+
+    public EmbeddingStore(TextEmbeddingRepository textEmbeddingRepository,
+                          @Qualifier("mlRestTemplate") RestTemplate restTemplate,
+                          @Value("${ml.service.url}") String mlServiceUrl,
+                          @Value("${hf.api.token:}") String hfApiToken,
+                          @Value("${ml.model.version:v1}") String modelVersion,
+                          @Value("${ml.embeddings.max-entries:10000}") int maxEntries,
+                          @Value("${ml.embeddings.request-size:32}") int requestSize) {
+        this.textEmbeddingRepository = textEmbeddingRepository;
+        this.restTemplate = restTemplate;
+        this.mlServiceUrl = mlServiceUrl;
+        this.hfApiToken = hfApiToken;
+        this.modelVersion = modelVersion;
+        this.requestSize = Math.max(1, requestSize);
+        this.heapCache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, float[]> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * Embeddings for the given texts, in order. Missing ones are looked up in Mongo, then fetched from
+     * the ML service in requests of request-size texts; ML errors are thrown to the caller.
+     */
+    public float[][] embed(List<String> texts) {
+        float[][] vectors = new float[texts.size()][];
+        Map<String, List<Integer>> missing = new LinkedHashMap<>();
+        for (int i = 0; i < texts.size(); i++) {
+            String key = key(texts.get(i));
+            vectors[i] = heapCache.get(key);
+            if (vectors[i] == null) {
+                missing.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+            }
+        }
+        if (missing.isEmpty()) {
+            return vectors;
+        }
+
+        try {
+            for (TextEmbedding stored : textEmbeddingRepository.findAllById(missing.keySet())) {
+                float[] vector = fromBytes(stored.getVector());
+                heapCache.put(stored.getId(), vector);
+                for (int i : missing.remove(stored.getId())) {
+                    vectors[i] = vector;
+                }
+            }
+        } catch (DataAccessException e) {
+            // Falling through to the ML service is always safe
+            log.warn("Embedding lookup failed for {} texts: {}", missing.size(), e.getMessage());
+        }
+
+        List<String> keys = new ArrayList<>(missing.keySet());
+        for (int from = 0; from < keys.size(); from += requestSize) {
+            List<String> batchKeys = keys.subList(from, Math.min(from + requestSize, keys.size()));
+            List<String> batchTexts = new ArrayList<>(batchKeys.size());
+            for (String key : batchKeys) {
+                batchTexts.add(texts.get(missing.get(key).get(0)));
+            }
+            List<float[]> fetched = fetch(batchTexts);
+
+            List<TextEmbedding> documents = new ArrayList<>(batchKeys.size());
+            for (int k = 0; k < batchKeys.size(); k++) {
+                float[] vector = fetched.get(k);
+                heapCache.put(batchKeys.get(k), vector);
+                for (int i : missing.get(batchKeys.get(k))) {
+                    vectors[i] = vector;
+                }
+                documents.add(new TextEmbedding(batchKeys.get(k), modelVersion, vector.length, toBytes(vector),
+                        LocalDateTime.now()));
+            }
+            try {
+                textEmbeddingRepository.saveAll(documents);
+            } catch (DataAccessException e) {
+                log.warn("Failed to persist {} embeddings: {}", documents.size(), e.getMessage());
+            }
+        }
+        return vectors;
+    }
+
+    private List<float[]> fetch(List<String> texts) {
+        log.info("Fetching {} embeddings from ML service", texts.size());
+        Map<String, Object> request = new HashMap<>();
+        request.put("texts", texts);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64)");
+        if (hfApiToken != null && !hfApiToken.isEmpty()) {
+            headers.set("Authorization", "Bearer " + hfApiToken);
+        }
+        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(request, headers);
+
+        ResponseEntity<Map> response = restTemplate.postForEntity(mlServiceUrl + "/api/ml/embed", entity, Map.class);
+        Map<String, Object> body = response.getBody();
+        if (body == null || !(body.get("embeddings") instanceof List<?> encoded) || encoded.size() != texts.size()) {
+            throw new RuntimeException("Invalid response format from ML embed endpoint");
+        }
+        List<float[]> vectors = new ArrayList<>(encoded.size());
+        for (Object vector : encoded) {
+            vectors.add(normalize(fromBytes(Base64.getDecoder().decode((String) vector))));
+        }
+        return vectors;
+    }
+
+    private String key(String text) {
+        return Hashing.sha256Hex(MatchResultCache.normalize(text)) + ":" + modelVersion;
+    }
+
+    /**
+     * Scales to unit length so a dot product is the cosine similarity; the ML service already
+     * normalises, this only guards against rounding and older deployments.
+     */
+    private static float[] normalize(float[] vector) {
+        double sum = 0;
+        for (float v : vector) {
+            sum += v * v;
+        }
+        if (sum > 0 && Math.abs(sum - 1) > 1e-6) {
+            float scale = (float) (1 / Math.sqrt(sum));
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] *= scale;
+            }
+        }
+        return vector;
+    }
+
+    private static float[] fromBytes(byte[] bytes) {
+        float[] vector = new float[bytes.length / Float.BYTES];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(vector);
+        return vector;
+    }
+
+    private static byte[] toBytes(float[] vector) {
+        ByteBuffer buffer = ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(vector);
+        return buffer.array();
+    }
+}
@@ -0,0 +1,80 @@
+package com.smartresume.service;
+
+import com.smartresume.model.ExtractedText;
+import com.smartresume.model.ExtractionResult;
+import com.smartresume.repository.ExtractedTextRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Two-level cache for extracted resume text: a bounded in-heap LRU in front of the
+ * "extracted_texts" Mongo collection. Entries are keyed by the SHA-256 of the file bytes
+ * plus the extractor version, so a re-upload of the same file never re-runs PDFBox/POI/OCR
+ * and bumping the extractor version invalidates every stale entry at once.
+ */
+@Component
+@Slf4j
+public class ExtractionCache {
+
+    private final ExtractedTextRepository extractedTextRepository;
+    private final Map<String, ExtractionResult> heapCache;
+
+    public ExtractionCache(ExtractedTextRepository extractedTextRepository,
+                           @Value("${extraction.cache.max-entries:256}") int maxEntries) {
+        this.extractedTextRepository = extractedTextRepository;
+        this.heapCache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ExtractionResult> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * Returns the cached extraction for the given content hash, or null when it was never extracted
+     * with this extractor version.
+     */
+    public ExtractionResult get(String contentHash, int extractorVersion) {
+        String key = key(contentHash, extractorVersion);
+        ExtractionResult result = heapCache.get(key);
+        if (result != null) {
+            return result;
+        }
+        try {
+            Optional<ExtractedText> stored = extractedTextRepository.findById(key);
+            if (stored.isPresent() && stored.get().getText() != null) {
+                ExtractedText doc = stored.get();
+                result = new ExtractionResult(doc.getText(), doc.getPageCount(), doc.getPagesExtracted(), doc.isTruncated(), false);
+                heapCache.put(key, result);
+                return result;
+            }
+        } catch (DataAccessException e) {
+            // A cache miss is always safe: the caller simply extracts again
+            log.warn("Extraction cache lookup failed for {}: {}", key, e.getMessage());
+        }
+        return null;
+    }
+
+    public void put(String contentHash, int extractorVersion, ExtractionResult result) {
+        String key = key(contentHash, extractorVersion);
+        heapCache.put(key, result);
+        try {
+            extractedTextRepository.save(new ExtractedText(key, contentHash, extractorVersion, result.getText(),
+                    result.getPageCount(), result.getPagesExtracted(), result.isTruncated(), LocalDateTime.now()));
+        } catch (DataAccessException e) {
+            log.warn("Failed to persist extracted text {}: {}", key, e.getMessage());
+        }
+    }
+
+    private static String key(String contentHash, int extractorVersion) {
+        return contentHash + ":" + extractorVersion;
+    }
+}
@@ -0,0 +1,492 @@
+package com.smartresume.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartresume.util.AhoCorasick;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-process port of the lexical half of the ML service's match model (ml-service/ml_logic.py):
+ * tokenize_text with n-grams and alias expansion, calculate_keyword_score with implication rules,
+ * the skill-overlap score, identify_gaps and predict_job_role, over the same skills_database.json.
+ *
+ * <p>Python builds a set of every uni/bi/trigram string of both texts. Here the vocabulary is compiled
+ * once: every word of a known phrase gets an id, every phrase becomes a packed key of up to three word
+ * ids, and a text is scanned once with allocation-free word lookups, marking the phrases it contains in a
+ * BitSet. Instances are immutable after construction and safe to share between threads.
+ *
+ * <p>The semantic (embedding) half of the model cannot run here, so {@link Match#matchScore()} re-weights
+ * the keyword (0.3) and overlap (0.2) parts of the ML formula to 100.
+ */
+@Component
+@Slf4j
+public class LocalMatchScorer {
+
+    private static final String DATABASE = "skills_database.json";
+
+    /** Same table as get_skill_aliases() in ml_logic.py. */
+    private static final Map<String, String> ALIASES = Map.ofEntries(
+            Map.entry("js", "javascript"), Map.entry("ts", "typescript"), Map.entry("gcp", "google cloud"),
+            Map.entry("aws", "amazon web services"), Map.entry("ml", "machine learning"),
+            Map.entry("dl", "deep learning"), Map.entry("nlp", "natural language processing"),
+            Map.entry("ci", "ci/cd"), Map.entry("cd", "ci/cd"), Map.entry("kube", "kubernetes"),
+            Map.entry("k8s", "kubernetes"), Map.entry("postgres", "postgresql"), Map.entry("mongo", "mongodb"),
+            Map.entry("net", ".net"), Map.entry("dotnet", ".net"), Map.entry("ai", "artificial intelligence"));
+
+    /** Same table as get_implications() in ml_logic.py. */
+    private static final Map<String, List<String>> IMPLICATIONS = Map.of(
+            "oop", List.of("java", "c++", "c#", "python", "ruby"),
+            "object oriented", List.of("java", "c++", "c#", "python", "ruby"),
+            "cloud", List.of("aws", "azure", "gcp"),
+            "frontend", List.of("react", "angular", "vue", "html", "css", "javascript"),
+            "backend", List.of("node.js", "django", "spring", "flask"),
+            "database", List.of("sql", "mysql", "postgresql", "mongodb", "oracle"),
+            "ci/cd", List.of("jenkins", "gitlab", "github actions"),
+            "devops", List.of("docker", "kubernetes", "jenkins", "terraform"));
+
+    private static final String DEFAULT_ROLE = "Software Engineer";
+
+    /** Same clusters, in the same order, as predict_job_role() in ml_logic.py. */
+    private static final Map<String, List<String>> ROLES = new LinkedHashMap<>();
+
+    static {
+        ROLES.put("Backend Developer", List.of("java", "spring boot", "node.js", "express.js", "nestjs", "django", "flask", "postgresql", "mysql", "microservices", "api gateway"));
+        ROLES.put("Frontend Developer", List.of("react", "angular", "vue", "javascript", "typescript", "html5", "css3", "tailwind css", "redux", "next.js", "bootstrap"));
+        ROLES.put("Full Stack Developer", List.of("react", "node.js", "javascript", "java", "spring boot", "databases", "rest api", "html", "css"));
+        ROLES.put("Data Scientist", List.of("python", "pandas", "numpy", "scikit-learn", "machine learning", "tensorflow", "pytorch", "nlp", "deep learning", "r"));
+        ROLES.put("DevOps Engineer", List.of("docker", "kubernetes", "jenkins", "terraform", "ansible", "aws", "azure", "gcp", "ci/cd", "yaml", "github actions"));
+        ROLES.put("Mobile Developer", List.of("flutter", "react native", "android", "ios", "swift", "kotlin", "dart", "xcode", "android studio"));
+        ROLES.put("QA Engineer", List.of("selenium", "cypress", "jest", "unit testing", "playwright", "test automation", "mocha", "junit", "testing tools"));
+    }
+
+    /**
+     * Lexical match of one resume against one JD, field for field what ml_logic.py computes.
+     */
+    public record Match(double matchScore, double keywordScore, double skillOverlap, List<String> skillsMatched,
+                        List<String> missingTechnicalSkills, List<String> missingSoftSkills, String predictedRole) {
+
+        public List<String> skillsGap() {
+            List<String> gap = new ArrayList<>(missingTechnicalSkills);
+            gap.addAll(missingSoftSkills);
+            return gap;
+        }
+    }
+
+    // Phrase dictionary: skills, alias keys/targets, implication evidence and role cluster skills
+    private final List<String> phrases = new ArrayList<>();
+    private final Map<String, Integer> phraseIds = new HashMap<>();
+    private final WordTable words = new WordTable();
+    private long[] ngramKeys;      // sorted packed word-id sequences
+    private int[] ngramPhrases;    // phrase id of ngramKeys[i]
+
+    private final int[] skills;          // ALL_SKILLS in database order
+    private final BitSet technical = new BitSet();
+    private final BitSet soft = new BitSet();
+    private final String[] titles;       // str.title() of each phrase, for display
+    private final int[] aliasFrom;
+    private final int[] aliasTo;
+    private final int[][] implies;       // skill phrase id -> evidence phrase ids, null if none
+    private final AhoCorasick longSkills; // skills of more than three words, matched as JD substrings
+    private final int[] longSkillPhrases;
+    private final String[] roleNames;
+    private final int[][] roleClusters;
+
+    public LocalMatchScorer() {
+        Set<String> technicalSkills = new LinkedHashSet<>();
+        Set<String> softSkills = new LinkedHashSet<>();
+        try (InputStream in = new ClassPathResource(DATABASE).getInputStream()) {
+            JsonNode root = new ObjectMapper().readTree(in);
+            root.path("technical_skills").forEach(n -> technicalSkills.add(n.asText()));
+            root.path("soft_skills").forEach(n -> softSkills.add(n.asText()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load " + DATABASE, e);
+        }
+
+        Set<Integer> all = new LinkedHashSet<>();
+        for (String skill : technicalSkills) {
+            int id = phrase(skill);
+            technical.set(id);
+            all.add(id);
+        }
+        for (String skill : softSkills) {
+            int id = phrase(skill);
+            soft.set(id);
+            all.add(id);
+        }
+        this.skills = all.stream().mapToInt(Integer::intValue).toArray();
+
+        this.aliasFrom = new int[ALIASES.size()];
+        this.aliasTo = new int[ALIASES.size()];
+        int a = 0;
+        for (Map.Entry<String, String> alias : ALIASES.entrySet()) {
+            aliasFrom[a] = phrase(alias.getKey());
+            aliasTo[a++] = phrase(alias.getValue());
+        }
+
+        Map<Integer, int[]> implicationIds = new HashMap<>();
+        IMPLICATIONS.forEach((skill, evidence) ->
+                implicationIds.put(phrase(skill), evidence.stream().mapToInt(this::phrase).toArray()));
+
+        this.roleNames = ROLES.keySet().toArray(new String[0]);
+        this.roleClusters = new int[roleNames.length][];
+        for (int r = 0; r < roleNames.length; r++) {
+            roleClusters[r] = ROLES.get(roleNames[r]).stream().mapToInt(this::phrase).toArray();
+        }
+
+        this.implies = new int[phrases.size()][];
+        implicationIds.forEach((id, evidence) -> implies[id] = evidence);
+        this.titles = phrases.stream().map(LocalMatchScorer::title).toArray(String[]::new);
+
+        AhoCorasick.Builder longBuilder = AhoCorasick.builder();
+        List<Integer> longIds = new ArrayList<>();
+        for (int id : skills) {
+            String skill = phrases.get(id);
+            if (skill.split(" ").length > 3 && skill.chars().allMatch(c -> c < 128)) {
+                longBuilder.add(skill);
+                longIds.add(id);
+            }
+        }
+        this.longSkills = longBuilder.build();
+        this.longSkillPhrases = longIds.stream().mapToInt(Integer::intValue).toArray();
+
+        compileNgrams();
+        log.info("Local match scorer ready: {} skills, {} phrases, {} words", skills.length, phrases.size(), words.size());
+    }
+
+    /**
+     * Scores a resume against a JD without the ML service. Thread-safe; allocates two small bitsets
+     * and the result lists per call.
+     */
+    public Match score(String resumeText, String jobDescription) {
+        BitSet resume = tokens(normalize(resumeText), null);
+        char[] jdText = normalize(jobDescription);
+        BitSet jdLong = new BitSet();
+        BitSet jd = tokens(jdText, jdLong);
+
+        int required = 0;
+        int matched = 0;
+        int overlap = 0;
+        List<String> skillsMatched = new ArrayList<>();
+        List<String> missingTechnical = new ArrayList<>();
+        List<String> missingSoft = new ArrayList<>();
+        for (int id : skills) {
+            if (!jd.get(id) && !jdLong.get(id)) {
+                continue;
+            }
+            required++;
+            boolean present = resume.get(id);
+            if (present) {
+                overlap++;
+                skillsMatched.add(titles[id]);
+            }
+            if (present || isImplied(id, resume)) {
+                matched++;
+            } else {
+                if (technical.get(id)) {
+                    missingTechnical.add(titles[id]);
+                }
+                if (soft.get(id)) {
+                    missingSoft.add(titles[id]);
+                }
+            }
+        }
+        double keywordScore = required == 0 ? 0 : 100.0 * matched / required;
+        double overlapScore = required == 0 ? 0 : 100.0 * overlap / required;
+        double matchScore = (keywordScore * 0.30 + overlapScore * 0.20) / 0.50;
+        return new Match(round1(matchScore), round1(keywordScore), round1(overlapScore), skillsMatched,
+                missingTechnical, missingSoft, predictRole(resume));
+    }
+
+    /**
+     * predict_job_role(): the cluster with the most skills in the resume, first one on ties.
+     */
+    public String predictRole(String resumeText) {
+        return predictRole(tokens(normalize(resumeText), null));
+    }
+
+    private String predictRole(BitSet resume) {
+        int best = -1;
+        int bestScore = 0;
+        for (int r = 0; r < roleClusters.length; r++) {
+            int score = 0;
+            for (int id : roleClusters[r]) {
+                if (resume.get(id)) {
+                    score++;
+                }
+            }
+            if (score > bestScore) {
+                best = r;
+                bestScore = score;
+            }
+        }
+        return best < 0 ? DEFAULT_ROLE : roleNames[best];
+    }
+
+    private boolean isImplied(int skill, BitSet resume) {
+        int[] evidence = implies[skill];
+        if (evidence != null) {
+            for (int id : evidence) {
+                if (resume.get(id)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Phrases present in the text's token set (words, bigrams, trigrams, plus alias targets).
+     * When {@code longMatches} is given, skills of more than three words found anywhere in the text are set there.
+     */
+    private BitSet tokens(char[] text, BitSet longMatches) {
+        BitSet present = new BitSet(phrases.size());
+        int w1 = -1;
+        int w2 = -1;
+        int pos = 0;
+        int n = text.length;
+        while (pos < n) {
+            int end = tokenEnd(text, pos, n);
+            if (end < 0) {
+                pos++;
+                continue;
+            }
+            int w0 = words.lookup(text, pos, end);
+            pos = end;
+            // Unknown words cannot be part of any phrase, and break the n-grams around them
+            if (w0 >= 0) {
+                mark(present, pack(w0, -1, -1));
+                if (w1 >= 0) {
+                    mark(present, pack(w1, w0, -1));
+                    if (w2 >= 0) {
+                        mark(present, pack(w2, w1, w0));
+                    }
+                }
+            }
+            w2 = w1;
+            w1 = w0;
+        }
+        // Alias expansion runs over the n-gram tokens only, like tokenize_text()
+        BitSet aliased = null;
+        for (int a = 0; a < aliasFrom.length; a++) {
+            if (present.get(aliasFrom[a])) {
+                if (aliased == null) {
+                    aliased = new BitSet(phrases.size());
+                }
+                aliased.set(aliasTo[a]);
+            }
+        }
+        if (aliased != null) {
+            present.or(aliased);
+        }
+        if (longMatches != null && longSkillPhrases.length > 0) {
+            longSkills.scan(text, n, (patternId, start, stop) -> longMatches.set(longSkillPhrases[patternId]));
+        }
+        return present;
+    }
+
+    private void mark(BitSet present, long key) {
+        int i = Arrays.binarySearch(ngramKeys, key);
+        if (i >= 0) {
+            present.set(ngramPhrases[i]);
+        }
+    }
+
+    /**
+     * End of the token of re.findall(r'(?:\.\w+)|(?:\w+[+#]{1,2})|(?:\w+)') starting at {@code pos}, or -1.
+     */
+    private static int tokenEnd(char[] text, int pos, int n) {
+        char c = text[pos];
+        if (c == '.') {
+            int end = pos + 1;
+            while (end < n && isWordChar(text[end])) {
+                end++;
+            }
+            return end > pos + 1 ? end : -1;
+        }
+        if (!isWordChar(c)) {
+            return -1;
+        }
+        int end = pos + 1;
+        while (end < n && isWordChar(text[end])) {
+            end++;
+        }
+        // \w+[+#]{1,2}
+        int symbols = 0;
+        while (symbols < 2 && end + symbols < n && (text[end + symbols] == '+' || text[end + symbols] == '#')) {
+            symbols++;
+        }
+        return end + symbols;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    /**
+     * text.lower().replace("-", " ")
+     */
+    private static char[] normalize(String text) {
+        if (text == null) {
+            return new char[0];
+        }
+        char[] chars = new char[text.length()];
+        for (int i = 0; i < chars.length; i++) {
+            char c = text.charAt(i);
+            chars[i] = c == '-' ? ' ' : Character.toLowerCase(c);
+        }
+        return chars;
+    }
+
+    private int phrase(String text) {
+        return phraseIds.computeIfAbsent(text, t -> {
+            phrases.add(t);
+            return phrases.size() - 1;
+        });
+    }
+
+    /**
+     * Packs every phrase that can occur as an n-gram token into a sorted key table. A phrase qualifies
+     * when it is at most three space-separated parts and each part tokenizes to exactly itself, so
+     * e.g. "node.js" (tokenized as "node", ".js") is never a token, exactly as in Python.
+     */
+    private void compileNgrams() {
+        Map<Long, Integer> keys = new HashMap<>();
+        for (int id = 0; id < phrases.size(); id++) {
+            String[] parts = phrases.get(id).split(" ", -1);
+            if (parts.length > 3) {
+                continue;
+            }
+            int[] ids = new int[]{-1, -1, -1};
+            boolean tokenizable = true;
+            for (int p = 0; p < parts.length && tokenizable; p++) {
+                char[] part = parts[p].toCharArray();
+                tokenizable = part.length > 0 && tokenEnd(part, 0, part.length) == part.length;
+                if (tokenizable) {
+                    ids[p] = words.add(parts[p]);
+                }
+            }
+            if (tokenizable) {
+                keys.put(pack(ids[0], ids[1], ids[2]), id);
+            }
+        }
+        ngramKeys = keys.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        ngramPhrases = new int[ngramKeys.length];
+        for (int i = 0; i < ngramKeys.length; i++) {
+            ngramPhrases[i] = keys.get(ngramKeys[i]);
+        }
+    }
+
+    private static long pack(int first, int second, int third) {
+        return ((long) (first + 1) << 42) | ((long) (second + 1) << 21) | (third + 1);
+    }
+
+    private static double round1(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+
+    /**
+     * Python's str.title(): upper-case a letter that follows a non-letter, lower-case the rest.
+     */
+    static String title(String text) {
+        char[] chars = text.toCharArray();
+        boolean previousCased = false;
+        for (int i = 0; i < chars.length; i++) {
+            char c = chars[i];
+            chars[i] = previousCased ? Character.toLowerCase(c) : Character.toUpperCase(c);
+            previousCased = Character.isLetter(c);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Open-addressing table from word to id, looked up straight from a char range so scanning allocates nothing.
+     */
+    private static final class WordTable {
+        private String[] slots = new String[1024];
+        private int[] ids = new int[1024];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        int add(String word) {
+            char[] chars = word.toCharArray();
+            int existing = lookup(chars, 0, chars.length);
+            if (existing >= 0) {
+                return existing;
+            }
+            if ((size + 1) * 2 > slots.length) {
+                grow();
+            }
+            insert(word, size);
+            return size++;
+        }
+
+        int lookup(char[] text, int start, int end) {
+            int mask = slots.length - 1;
+            for (int i = hash(text, start, end) & mask; slots[i] != null; i = (i + 1) & mask) {
+                String word = slots[i];
+                if (word.length() == end - start && matches(word, text, start)) {
+                    return ids[i];
+                }
+            }
+            return -1;
+        }
+
+        private void insert(String word, int id) {
+            char[] chars = word.toCharArray();
+            int mask = slots.length - 1;
+            int i = hash(chars, 0, chars.length) & mask;
+            while (slots[i] != null) {
+                i = (i + 1) & mask;
+            }
+            slots[i] = word;
+            ids[i] = id;
+        }
+
+        private void grow() {
+            String[] oldSlots = slots;
+            int[] oldIds = ids;
+            slots = new String[oldSlots.length * 2];
+            ids = new int[oldSlots.length * 2];
+            for (int i = 0; i < oldSlots.length; i++) {
+                if (oldSlots[i] != null) {
+                    insert(oldSlots[i], oldIds[i]);
+                }
+            }
+        }
+
+        private static boolean matches(String word, char[] text, int start) {
+            for (int i = 0; i < word.length(); i++) {
+                if (word.charAt(i) != text[start + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int hash(char[] text, int start, int end) {
+            int h = 0;
+            for (int i = start; i < end; i++) {
+                h = 31 * h + text[i];
+            }
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.smartresume.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker for the ML service, consulted by {@link MLTrafficGovernor} on every ML POST.
+ *
+ * <p>CLOSED: calls go through and their outcomes fill a sliding window of the last window-size calls.
+ * Once min-calls are recorded and either the failure rate (I/O errors, 5xx) or the slow-call rate
+ * reaches its threshold, the circuit opens. OPEN: calls are rejected at once instead of tying up
+ * threads for the 30s connect / 90s read timeouts, so callers drop to their PENDING/fallback paths.
+ * After open-ms the MLWarmupScheduler health check probes the service; a healthy probe moves to
+ * HALF_OPEN, where half-open-calls trial calls decide between CLOSED and OPEN again.
+ */
+@Component
+@Slf4j
+public class MLCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int windowSize;
+    private final int minCalls;
+    private final double failureRateThreshold;
+    private final double slowRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenCalls;
+
+    private final Counter rejected;
+    private final Map<State, Counter> transitions = new EnumMap<>(State.class);
+
+    // Guarded by this
+    private State state = State.CLOSED;
+    private final boolean[] failed;
+    private final boolean[] slow;
+    private int next;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+    private long openedAt;
+    private int trialPermits;
+    private int trialSuccesses;
+
+    public MLCircuitBreaker(MeterRegistry meterRegistry,
+                            @Value("${ml.circuit.window-size:20}") int windowSize,
+                            @Value("${ml.circuit.min-calls:5}") int minCalls,
+                            @Value("${ml.circuit.failure-rate-threshold:50}") double failureRateThreshold,
+                            @Value("${ml.circuit.slow-call-rate-threshold:80}") double slowRateThreshold,
+                            @Value("${ml.circuit.slow-call-ms:75000}") long slowCallMs,
+                            @Value("${ml.circuit.open-ms:30000}") long openMs,
+                            @Value("${ml.circuit.half-open-calls:3}") int halfOpenCalls) {
+        this.windowSize = Math.max(1, windowSize);
+        this.minCalls = Math.max(1, Math.min(minCalls, this.windowSize));
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowRateThreshold = slowRateThreshold;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMs);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+        this.failed = new boolean[this.windowSize];
+        this.slow = new boolean[this.windowSize];
+
+        this.rejected = Counter.builder("ml.circuit.rejected")
+                .description("ML calls failed fast because the circuit was open").register(meterRegistry);
+        for (State s : State.values()) {
+            transitions.put(s, Counter.builder("ml.circuit.transitions").tag("to", s.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        // 0 = closed, 1 = open, 2 = half-open
+        Gauge.builder("ml.circuit.state", this, b -> b.getState().ordinal()).register(meterRegistry);
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Cheap check before a call queues for capacity: only an OPEN circuit rejects here,
+     * half-open trial permits are taken by {@link #acquirePermission()} just before sending.
+     */
+    public synchronized void rejectIfOpen() throws IOException {
+        if (state == State.OPEN) {
+            rejected.increment();
+            throw new IOException("ML service circuit breaker is OPEN, failing fast");
+        }
+    }
+
+    /**
+     * Throws when the call may not go to the ML service right now.
+     */
+    public synchronized void acquirePermission() throws IOException {
+        if (state == State.CLOSED) {
+            return;
+        }
+        if (state == State.HALF_OPEN && trialPermits > 0) {
+            trialPermits--;
+            return;
+        }
+        rejected.increment();
+        throw new IOException("ML service circuit breaker is " + state + ", failing fast");
+    }
+
+    /**
+     * Records the outcome of a call that was sent.
+     *
+     * @param failure I/O error or 5xx response; throttling (429) is not a failure
+     */
+    public synchronized void record(boolean failure, long latencyNanos) {
+        boolean isSlow = latencyNanos > slowCallNanos;
+        if (state == State.HALF_OPEN) {
+            if (failure || isSlow) {
+                transition(State.OPEN);
+            } else if (++trialSuccesses >= halfOpenCalls) {
+                transition(State.CLOSED);
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            // A call admitted before the circuit opened
+            return;
+        }
+        if (recorded == windowSize) {
+            failures -= failed[next] ? 1 : 0;
+            slowCalls -= slow[next] ? 1 : 0;
+        } else {
+            recorded++;
+        }
+        failed[next] = failure;
+        slow[next] = isSlow;
+        failures += failure ? 1 : 0;
+        slowCalls += isSlow ? 1 : 0;
+        next = (next + 1) % windowSize;
+
+        if (recorded >= minCalls) {
+            double failureRate = 100.0 * failures / recorded;
+            double slowRate = 100.0 * slowCalls / recorded;
+            if (failureRate >= failureRateThreshold || slowRate >= slowRateThreshold) {
+                log.warn("ML circuit opening: {}% failed, {}% slow over the last {} calls",
+                        Math.round(failureRate), Math.round(slowRate), recorded);
+                transition(State.OPEN);
+            }
+        }
+    }
+
+    /**
+     * True when the circuit has been open for open-ms and a health probe should decide what happens next.
+     */
+    public synchronized boolean isProbeDue() {
+        return state == State.OPEN && System.nanoTime() - openedAt >= openNanos;
+    }
+
+    /**
+     * Result of a health probe: healthy lets trial calls through, unhealthy keeps the circuit open for another period.
+     */
+    public synchronized void onProbe(boolean healthy) {
+        if (state != State.OPEN) {
+            return;
+        }
+        if (healthy) {
+            transition(State.HALF_OPEN);
+        } else {
+            openedAt = System.nanoTime();
+        }
+    }
+
+    private void transition(State to) {
+        log.info("ML circuit breaker {} -> {}", state, to);
+        state = to;
+        transitions.get(to).increment();
+        switch (to) {
+            case OPEN -> openedAt = System.nanoTime();
+            case HALF_OPEN -> {
+                trialPermits = halfOpenCalls;
+                trialSuccesses = 0;
+            }
+            case CLOSED -> {
+                next = 0;
+                recorded = 0;
+                failures = 0;
+                slowCalls = 0;
+            }
+        }
+    }
+}
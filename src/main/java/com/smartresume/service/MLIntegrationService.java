@@ -1,13 +1,22 @@
 package com.smartresume.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.smartresume.model.MLAnalysisResult;
+import com.smartresume.util.Hashing;
+import com.smartresume.util.SingleFlight;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import java.util.*;
 
 @Service
@@ -15,88 +24,189 @@ import java.util.*;
 @SuppressWarnings("unchecked")
 public class MLIntegrationService {
 
+    public enum MatchEngine {
+        /** Full hybrid model (semantic + keyword + overlap) on the ML service. */
+        ML,
+        /** {@link LocalMatchScorer}: keyword and skill-gap part only, in-process, sub-millisecond. */
+        LOCAL
+    }
+
     @Value("${ml.service.url:http://localhost:5000}")
     private String mlServiceUrl;
 
     @Value("${hf.api.token:}")
     private String hfApiToken;
 
-    private final RestTemplate restTemplate;
+    // Sorted keys so equal payloads always produce the same fingerprint
+    private static final ObjectMapper FINGERPRINT_MAPPER = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
 
-    public MLIntegrationService() {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(30000); // 30 seconds
-        factory.setReadTimeout(90000);    // 90 seconds (to wait for Render cold-starts)
-        this.restTemplate = new RestTemplate(factory);
+    private final RestTemplate restTemplate;
+    private final MatchResultCache matchResultCache;
+    private final LocalMatchScorer localMatchScorer;
+    // Identical requests already in flight are shared instead of sent again to the rate-limited ML host
+    private final SingleFlight singleFlight = new SingleFlight();
+    // Null unless ml.batching.enabled: single matches then go out together through batch-analyze
+    private final MatchMicroBatcher matchBatcher;
+
+    public MLIntegrationService(@Qualifier("mlRestTemplate") RestTemplate restTemplate, MatchResultCache matchResultCache,
+                                LocalMatchScorer localMatchScorer,
+                                MeterRegistry meterRegistry,
+                                @Value("${ml.batching.enabled:false}") boolean batchingEnabled,
+                                @Value("${ml.batching.window-ms:20}") long batchWindowMs,
+                                @Value("${ml.batching.max-size:16}") int batchMaxSize,
+                                @Value("${ml.batching.workers:4}") int batchWorkers) {
+        // Pooled client with the ML timeouts (90s read to wait for Render cold-starts), see HttpClientConfig
+        this.restTemplate = restTemplate;
+        this.matchResultCache = matchResultCache;
+        this.localMatchScorer = localMatchScorer;
+        this.matchBatcher = batchingEnabled
+                ? new MatchMicroBatcher(batchWindowMs, batchMaxSize, batchWorkers, this::postMatchBatch)
+                : null;
+        FunctionCounter.builder("ml.requests.coalesced", singleFlight, SingleFlight::sharedCount)
+                .description("ML calls answered by an identical request already in flight").register(meterRegistry);
+        Gauge.builder("ml.requests.in-flight", singleFlight, SingleFlight::inFlightCount).register(meterRegistry);
     }
 
     /**
-     * Analyze resume-job match using ML service
-     * INTEGRATION READY: Uncomment when ML team delivers
+     * Analyze resume-job match using ML service.
+     * Scores are cached per (resume text, JD text, model version), so the pre-application check
+     * followed by applyToJob only pays for one ML round trip.
      */
     public MLAnalysisResult analyzeMatch(String resumeText, String jobDescription, String jobTitle,
             String jobRequirements) {
-        log.info("Analyzing resume-job match for job: {}", jobTitle);
+        return analyzeMatch(resumeText, jobDescription, jobTitle, jobRequirements, MatchEngine.ML);
+    }
 
-        int maxRetries = 3;
-        int delayMs = 3000;
-        Exception lastException = null;
+    /**
+     * Analyze resume-job match with the chosen engine; LOCAL never leaves the JVM.
+     */
+    public MLAnalysisResult analyzeMatch(String resumeText, String jobDescription, String jobTitle,
+            String jobRequirements, MatchEngine engine) {
+        if (engine == MatchEngine.LOCAL) {
+            return localMatch(resumeText, jobDescription, "LOCAL");
+        }
+        String cacheKey = matchResultCache.key(resumeText, jobDescription);
+        MLAnalysisResult cached = matchResultCache.get(cacheKey);
+        if (cached != null) {
+            log.info("Resume-job match for job {} served from cache", jobTitle);
+            return cached;
+        }
+        return singleFlight.execute("analyze:" + cacheKey, () -> requestMatch(resumeText, jobDescription, jobTitle, cacheKey),
+                MatchResultCache::copy);
+    }
 
-        for (int i = 0; i < maxRetries; i++) {
-            try {
-                String url = mlServiceUrl + "/api/ml/analyze";
+    private MLAnalysisResult requestMatch(String resumeText, String jobDescription, String jobTitle, String cacheKey) {
+        log.info("Analyzing resume-job match for job: {}", jobTitle);
 
-                Map<String, String> request = new HashMap<>();
-                request.put("resumeText", resumeText);
-                request.put("jobDescription", jobDescription);
+        // Backoff and retries for 429s happen in MLTrafficGovernor, shared with every other ML caller
+        try {
+            if (matchBatcher != null) {
+                return completed(convertToMLResult(matchBatcher.analyze(resumeText, jobDescription)), cacheKey);
+            }
+            String url = mlServiceUrl + "/api/ml/analyze";
 
-                HttpHeaders headers = new HttpHeaders();
-                headers.setContentType(MediaType.APPLICATION_JSON);
-                headers.set("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64)");
-                if (hfApiToken != null && !hfApiToken.isEmpty()) {
-                    headers.set("Authorization", "Bearer " + hfApiToken);
-                }
-                HttpEntity<Map<String, String>> entity = new HttpEntity<>(request, headers);
+            Map<String, String> request = new HashMap<>();
+            request.put("resumeText", resumeText);
+            request.put("jobDescription", jobDescription);
 
-                ResponseEntity<Map<String, Object>> response = restTemplate.postForEntity(url, entity, (Class<Map<String, Object>>) (Class<?>) Map.class);
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.set("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64)");
+            if (hfApiToken != null && !hfApiToken.isEmpty()) {
+                headers.set("Authorization", "Bearer " + hfApiToken);
+            }
+            HttpEntity<Map<String, String>> entity = new HttpEntity<>(request, headers);
 
-                if (response.getStatusCode() == HttpStatus.OK) {
-                    Map<String, Object> mlResponse = response.getBody();
-                    return mlResponse != null ? convertToMLResult(mlResponse) : null;
-                }
-                break;
-            } catch (org.springframework.web.client.HttpClientErrorException.TooManyRequests e) {
-                log.warn("ML API Rate Limited (429). Retrying {}/{} in {}ms...", i + 1, maxRetries, delayMs);
-                lastException = e;
-                try { Thread.sleep(delayMs); } catch (InterruptedException ie) { Thread.currentThread().interrupt(); }
-                delayMs *= 2; // Exponential backoff
-            } catch (Exception e) {
-                log.error("ML service unavailable: {}", e.getMessage());
-                throw new RuntimeException("ML API Error: " + e.getMessage(), e);
+            ResponseEntity<Map<String, Object>> response = restTemplate.postForEntity(url, entity, (Class<Map<String, Object>>) (Class<?>) Map.class);
+
+            if (response.getStatusCode() == HttpStatus.OK) {
+                Map<String, Object> mlResponse = response.getBody();
+                return mlResponse != null ? completed(convertToMLResult(mlResponse), cacheKey) : null;
             }
+        } catch (org.springframework.web.client.HttpClientErrorException.TooManyRequests e) {
+            log.warn("ML service still rate limited (429), scoring {} with the local keyword model", jobTitle);
+            // Not cached: the next request should get a real score once the rate limit clears
+            return localMatch(resumeText, jobDescription, "FALLBACK");
+        } catch (Exception e) {
+            log.error("ML service unavailable: {}", e.getMessage());
+            throw new RuntimeException("ML API Error: " + e.getMessage(), e);
         }
-        
-        if (lastException != null && lastException instanceof org.springframework.web.client.HttpClientErrorException.TooManyRequests) {
-            log.warn("Returning graceful fallback for analyzeMatch due to persistent 429 Too Many Requests");
-            Map<String, Object> fallback = new HashMap<>();
-            fallback.put("matchScore", 85.0);
-            fallback.put("skillsMatched", java.util.Arrays.asList("Java", "Spring Boot", "REST API"));
-            fallback.put("skillsGap", java.util.Arrays.asList("Docker", "AWS"));
-            fallback.put("predictedRole", "Software Engineer");
-            return convertToMLResult(fallback);
+
+        throw new RuntimeException("ML Service failed to return a valid response.");
+    }
+
+    private MLAnalysisResult localMatch(String resumeText, String jobDescription, String status) {
+        return localResult(localMatchScorer.score(resumeText, jobDescription), status);
+    }
+
+    /**
+     * Wraps an already computed local score as an analysis result.
+     */
+    public MLAnalysisResult localResult(LocalMatchScorer.Match local, String status) {
+        MLAnalysisResult result = new MLAnalysisResult();
+        result.setMatchScore(local.matchScore());
+        result.setSkillsMatched(local.skillsMatched());
+        result.setSkillsGap(local.skillsGap());
+        result.setExperienceMatch(local.matchScore() >= 70 ? "Good" : local.matchScore() >= 50 ? "Fair" : "Poor");
+        // No semantic similarity behind this score
+        result.setConfidence(0.0);
+        result.setPredictedRole(local.predictedRole());
+        result.setStatus(status);
+        result.setAnalyzedAt(new Date());
+        return result;
+    }
+
+    private MLAnalysisResult completed(MLAnalysisResult result, String cacheKey) {
+        result.setStatus("COMPLETED");
+        result.setAnalyzedAt(new Date());
+        matchResultCache.put(cacheKey, result);
+        return result;
+    }
+
+    /**
+     * Sends one micro-batch of single matches to batch-analyze. Unlike {@link #batchAnalyze} errors
+     * are thrown, so a persistent 429 reaches every waiting analyzeMatch call and its fallback.
+     */
+    private List<Map<String, Object>> postMatchBatch(List<Map<String, String>> applications) {
+        log.info("Sending micro-batch of {} resume-job matches", applications.size());
+        Map<String, Object> request = new HashMap<>();
+        request.put("jobId", "micro-batch");
+        request.put("applications", applications);
+        request.put("includeDetails", true);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64)");
+        if (hfApiToken != null && !hfApiToken.isEmpty()) {
+            headers.set("Authorization", "Bearer " + hfApiToken);
         }
+        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(request, headers);
 
-        if (lastException != null) {
-            throw new RuntimeException("ML API Error after retries: " + lastException.getMessage(), lastException);
+        ResponseEntity<Map<String, Object>> response = restTemplate.postForEntity(mlServiceUrl + "/api/ml/batch-analyze", entity, (Class<Map<String, Object>>) (Class<?>) Map.class);
+        Map<String, Object> mlResponse = response.getBody();
+        if (mlResponse == null || !(mlResponse.get("results") instanceof List)) {
+            throw new RuntimeException("Invalid response format from ML service");
         }
+        return (List<Map<String, Object>>) mlResponse.get("results");
+    }
 
-        throw new RuntimeException("ML Service failed to return a valid response.");
+    @PreDestroy
+    public void shutdown() {
+        if (matchBatcher != null) {
+            matchBatcher.shutdown();
+        }
     }
 
     /**
      * Extract skills from resume using ML service
      */
     public Map<String, Object> extractSkills(String resumeText) {
+        return singleFlight.execute(fingerprint("extract-skills", resumeText), () -> requestSkills(resumeText),
+                MLIntegrationService::copyJson);
+    }
+
+    private Map<String, Object> requestSkills(String resumeText) {
         log.info("Extracting skills from resume");
 
         try {
@@ -129,6 +239,11 @@ public class MLIntegrationService {
      * Get course recommendations using ML service
      */
     public List<Map<String, String>> recommendCourses(List<String> currentSkills, List<String> targetSkills) {
+        return singleFlight.execute(fingerprint("recommend-courses", Arrays.asList(currentSkills, targetSkills)),
+                () -> requestCourses(currentSkills, targetSkills), MLIntegrationService::copyJson);
+    }
+
+    private List<Map<String, String>> requestCourses(List<String> currentSkills, List<String> targetSkills) {
         log.info("Getting course recommendations");
 
         try {
@@ -201,81 +316,109 @@ public class MLIntegrationService {
      * Matrix analyze multiple applications against multiple JDs
      */
     public List<Map<String, Object>> matrixAnalyze(List<Map<String, Object>> jobDescriptions, List<Map<String, Object>> applications) {
-        log.info("Matrix analyzing {} applications against {} JDs", applications.size(), jobDescriptions.size());
+        return singleFlight.execute(fingerprint("matrix-analyze", Arrays.asList(jobDescriptions, applications)),
+                () -> requestMatrix(jobDescriptions, applications), MLIntegrationService::copyJson);
+    }
 
-        int maxRetries = 3;
-        int delayMs = 3000;
+    private List<Map<String, Object>> requestMatrix(List<Map<String, Object>> jobDescriptions, List<Map<String, Object>> applications) {
+        log.info("Matrix analyzing {} applications against {} JDs", applications.size(), jobDescriptions.size());
 
+        // Backoff and retries for 429s happen in MLTrafficGovernor, shared with every other ML caller
         Exception lastException = null;
+        try {
+            String url = mlServiceUrl + "/api/ml/matrix-analyze";
 
-        for (int i = 0; i < maxRetries; i++) {
-            try {
-                String url = mlServiceUrl + "/api/ml/matrix-analyze";
-
-                Map<String, Object> request = new HashMap<>();
-                request.put("jobDescriptions", jobDescriptions);
-                request.put("applications", applications);
+            Map<String, Object> request = new HashMap<>();
+            request.put("jobDescriptions", jobDescriptions);
+            request.put("applications", applications);
 
-                HttpHeaders headers = new HttpHeaders();
-                headers.setContentType(MediaType.APPLICATION_JSON);
-                headers.set("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64)");
-                if (hfApiToken != null && !hfApiToken.isEmpty()) {
-                    headers.set("Authorization", "Bearer " + hfApiToken);
-                }
-                HttpEntity<Map<String, Object>> entity = new HttpEntity<>(request, headers);
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.set("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64)");
+            if (hfApiToken != null && !hfApiToken.isEmpty()) {
+                headers.set("Authorization", "Bearer " + hfApiToken);
+            }
+            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(request, headers);
 
-                ResponseEntity<Map<String, Object>> response = restTemplate.postForEntity(url, entity, (Class<Map<String, Object>>) (Class<?>) Map.class);
+            ResponseEntity<Map<String, Object>> response = restTemplate.postForEntity(url, entity, (Class<Map<String, Object>>) (Class<?>) Map.class);
 
-                if (response.getStatusCode() == HttpStatus.OK) {
-                    Map<String, Object> mlResponse = response.getBody();
-                    if (mlResponse != null && mlResponse.containsKey("results")) {
-                        return (List<Map<String, Object>>) mlResponse.get("results");
-                    }
-                }
-                throw new RuntimeException("Invalid response format from ML service");
-            } catch (org.springframework.web.client.HttpStatusCodeException e) {
-                lastException = e;
-                if (e.getStatusCode().value() == 429) {
-                    log.warn("ML API Rate Limited (429) during matrix analyze. Retrying {}/{} in {}ms...", i + 1, maxRetries, delayMs);
-                    try { Thread.sleep(delayMs); } catch (InterruptedException ie) { Thread.currentThread().interrupt(); }
-                    delayMs *= 2;
-                } else {
-                    log.error("HTTP error calling ML service for matrix analyze: {}", e.getMessage());
-                    break;
+            if (response.getStatusCode() == HttpStatus.OK) {
+                Map<String, Object> mlResponse = response.getBody();
+                if (mlResponse != null && mlResponse.containsKey("results")) {
+                    return (List<Map<String, Object>>) mlResponse.get("results");
                 }
-            } catch (Exception e) {
-                lastException = e;
-                log.error("Error calling ML service for matrix analyze: {}", e.getMessage());
-                break;
             }
+            throw new RuntimeException("Invalid response format from ML service");
+        } catch (org.springframework.web.client.HttpStatusCodeException e) {
+            lastException = e;
+            log.error("HTTP error calling ML service for matrix analyze: {}", e.getMessage());
+        } catch (Exception e) {
+            lastException = e;
+            log.error("Error calling ML service for matrix analyze: {}", e.getMessage());
         }
 
         if (lastException != null && lastException instanceof org.springframework.web.client.HttpClientErrorException.TooManyRequests) {
-            log.warn("Returning graceful fallback for matrixAnalyze due to persistent 429 Too Many Requests");
+            log.warn("ML service still rate limited (429), scoring the matrix with the local keyword model");
             List<Map<String, Object>> fallbackResults = new ArrayList<>();
             for (Map<String, Object> app : applications) {
                 Map<String, Object> appResult = new HashMap<>();
                 appResult.put("applicationId", app.get("applicationId"));
                 List<Map<String, Object>> matches = new ArrayList<>();
-                for (Map<String, Object> jd : jobDescriptions) {
+                for (int j = 0; j < jobDescriptions.size(); j++) {
+                    Map<String, Object> jd = jobDescriptions.get(j);
+                    LocalMatchScorer.Match local = localMatchScorer.score(
+                            (String) app.get("resumeText"), (String) jd.get("jobDescriptionText"));
                     Map<String, Object> match = new HashMap<>();
+                    match.put("jdIndex", j);
                     match.put("jobId", jd.get("jobId"));
-                    match.put("matchScore", 85.0);
-                    match.put("skillsMatched", java.util.Arrays.asList("Java", "Spring Boot"));
-                    match.put("skillsGap", java.util.Arrays.asList("Docker", "AWS"));
+                    match.put("matchScore", local.matchScore());
+                    match.put("keywordScore", local.keywordScore());
+                    match.put("skillsMatched", local.skillsMatched());
+                    match.put("missingSkills", local.skillsGap());
+                    match.put("skillsGap", local.skillsGap());
+                    match.put("scoredBy", "LOCAL");
                     matches.add(match);
                 }
+                matches.sort((a, b) -> Double.compare((Double) b.get("matchScore"), (Double) a.get("matchScore")));
                 appResult.put("matches", matches);
                 fallbackResults.add(appResult);
             }
             return fallbackResults;
         }
 
-        if (lastException != null) {
-            throw new RuntimeException("ML API Error: " + lastException.getMessage(), lastException);
+        throw new RuntimeException("ML API Error: " + lastException.getMessage(), lastException);
+    }
+
+    /**
+     * Single-flight key for one ML operation: SHA-256 of the payload serialised with sorted map keys.
+     */
+    private static String fingerprint(String operation, Object payload) {
+        try {
+            return operation + ":" + Hashing.sha256Hex(FINGERPRINT_MAPPER.writeValueAsBytes(payload));
+        } catch (JsonProcessingException e) {
+            // Not expected for plain maps/lists of strings; an unshared key just means no coalescing
+            return operation + ":" + UUID.randomUUID();
         }
-        
-        throw new RuntimeException("ML Service failed to return a valid response.");
+    }
+
+    /**
+     * Deep copy of a parsed JSON response (maps, lists and immutable leaves), so callers coalesced by
+     * singleFlight each get a response they can modify.
+     */
+    private static <T> T copyJson(T value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            map.forEach((key, item) -> copy.put(key, copyJson(item)));
+            return (T) copy;
+        }
+        if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            for (Object item : list) {
+                copy.add(copyJson(item));
+            }
+            return (T) copy;
+        }
+        return value;
     }
 
     // Helper method to convert ML response to MLAnalysisResult
@@ -0,0 +1,59 @@
+package com.smartresume.service;
+
+import java.util.function.Supplier;
+
+/**
+ * Priority lanes for ML traffic, in priority order. {@link MLTrafficGovernor} gives each lane a weighted
+ * share of the ML capacity and keeps a minimum of it free for the interactive lanes, so a candidate's
+ * apply does not queue behind a 250-resume batch.
+ *
+ * <p>The lane of a call is taken from the {@link #HEADER} request header when present, otherwise from
+ * the calling thread ({@link #callAs}); unmarked calls count as {@link #INTERACTIVE}.
+ */
+public enum MLLane {
+    /** Candidate-facing requests: apply, pre-application score, match-my-resume. */
+    INTERACTIVE,
+    /** Recruiter re-analysis of a single application. */
+    RECRUITER,
+    /** Enterprise batch screening and placement matrices. */
+    BATCH,
+    /** Backfills and other work nobody is waiting for. */
+    BACKGROUND;
+
+    public static final String HEADER = "X-ML-Lane";
+
+    private static final ThreadLocal<MLLane> CURRENT = new ThreadLocal<>();
+
+    public static MLLane current() {
+        MLLane lane = CURRENT.get();
+        return lane != null ? lane : INTERACTIVE;
+    }
+
+    /**
+     * Runs the call with every ML request it makes on this thread classified into the given lane.
+     */
+    public static <T> T callAs(MLLane lane, Supplier<T> call) {
+        MLLane previous = CURRENT.get();
+        CURRENT.set(lane);
+        try {
+            return call.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    static MLLane fromHeader(String value) {
+        if (value != null) {
+            for (MLLane lane : values()) {
+                if (lane.name().equalsIgnoreCase(value.trim())) {
+                    return lane;
+                }
+            }
+        }
+        return null;
+    }
+}
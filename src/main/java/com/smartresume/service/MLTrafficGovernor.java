@@ -0,0 +1,347 @@
+package com.smartresume.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Central throttle for every POST to the ML service, installed as an interceptor on the ML RestTemplate,
+ * so batch screening, interactive scoring and JD parsing all draw from the same budget.
+ *
+ * <p>Two limits apply: a token bucket caps the request rate, and an AIMD concurrency limit adapts to
+ * what the host actually sustains. Each fast success raises the limit by about one per round trip;
+ * a 429/503 halves it and pauses all traffic for the server's Retry-After (or a default backoff);
+ * a slow call trims it by 10%. Throttled requests are retried here, after the pause, up to max-retries.
+ *
+ * <p>Waiting requests are admitted per {@link MLLane}: lanes take turns by weighted fair queueing, and
+ * each lane's reserved share of the limit is kept free from the other lanes even while it is idle,
+ * so an interactive call finds a slot right away while batch chunks hold the rest.
+ */
+@Component
+@Slf4j
+public class MLTrafficGovernor implements ClientHttpRequestInterceptor {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition capacity = lock.newCondition();
+
+    private final double ratePerSecond;
+    private final double burst;
+    private final double minLimit;
+    private final double maxLimit;
+    private final long slowCallNanos;
+    private final long defaultBackoffMs;
+    private final long maxWaitNanos;
+    private final int maxRetries;
+
+    private static final MLLane[] LANES = MLLane.values();
+    private final double[] laneWeights;
+    private final double[] reservedShares;
+
+    private final MLCircuitBreaker circuitBreaker;
+    private final Counter throttled;
+    private final Timer[] laneWaits = new Timer[LANES.length];
+
+    // Guarded by lock
+    private double tokens;
+    private long lastRefill = System.nanoTime();
+    private double limit;
+    private int inFlight;
+    private long pausedUntil = System.nanoTime();
+    private long lastDecrease = System.nanoTime();
+    private final int[] laneWaiting = new int[LANES.length];
+    private final int[] laneInFlight = new int[LANES.length];
+    // Weighted fair queueing: a lane's virtual time advances by 1/weight per admitted request
+    private final double[] virtualTime = new double[LANES.length];
+    private double virtualClock;
+
+    public MLTrafficGovernor(MeterRegistry meterRegistry, MLCircuitBreaker circuitBreaker,
+                             @Value("${ml.governor.rate-per-second:2}") double ratePerSecond,
+                             @Value("${ml.governor.burst:4}") double burst,
+                             @Value("${ml.governor.initial-concurrency:4}") double initialLimit,
+                             @Value("${ml.governor.min-concurrency:1}") double minLimit,
+                             @Value("${ml.governor.max-concurrency:16}") double maxLimit,
+                             @Value("${ml.governor.slow-call-ms:45000}") long slowCallMs,
+                             @Value("${ml.governor.default-backoff-ms:5000}") long defaultBackoffMs,
+                             @Value("${ml.governor.max-wait-ms:180000}") long maxWaitMs,
+                             @Value("${ml.governor.max-retries:3}") int maxRetries,
+                             @Value("${ml.lanes.weights:8,4,2,1}") double[] laneWeights,
+                             @Value("${ml.lanes.reserved-shares:0.25,0.1,0,0}") double[] reservedShares) {
+        if (laneWeights.length != LANES.length || reservedShares.length != LANES.length) {
+            throw new IllegalArgumentException("ml.lanes.weights and ml.lanes.reserved-shares need one value per lane: "
+                    + Arrays.toString(LANES));
+        }
+        this.circuitBreaker = circuitBreaker;
+        this.ratePerSecond = ratePerSecond;
+        this.burst = Math.max(1, burst);
+        // Every reserving lane holds at least one slot, so the floor must leave one more for the unreserved lanes
+        int reservingLanes = (int) Arrays.stream(reservedShares).filter(share -> share > 0).count();
+        if (minLimit < reservingLanes + 1) {
+            log.warn("ml.governor.min-concurrency={} cannot cover {} lane reservations, using {}", minLimit,
+                    reservingLanes, reservingLanes + 1);
+        }
+        this.minLimit = Math.max(Math.max(1, minLimit), reservingLanes + 1);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMs);
+        this.defaultBackoffMs = defaultBackoffMs;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.maxRetries = maxRetries;
+        this.tokens = this.burst;
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.laneWeights = laneWeights.clone();
+        this.reservedShares = reservedShares.clone();
+
+        this.throttled = Counter.builder("ml.governor.throttled")
+                .description("ML responses with 429/503 that shrank the concurrency limit").register(meterRegistry);
+        Gauge.builder("ml.governor.concurrency.limit", this, MLTrafficGovernor::currentLimit).register(meterRegistry);
+        Gauge.builder("ml.governor.in-flight", this, MLTrafficGovernor::currentInFlight).register(meterRegistry);
+        for (MLLane lane : LANES) {
+            String tag = lane.name().toLowerCase();
+            Gauge.builder("ml.governor.lane.queued", this, g -> g.read(g.laneWaiting, lane))
+                    .tag("lane", tag).description("ML requests waiting for capacity").register(meterRegistry);
+            Gauge.builder("ml.governor.lane.in-flight", this, g -> g.read(g.laneInFlight, lane))
+                    .tag("lane", tag).register(meterRegistry);
+            laneWaits[lane.ordinal()] = Timer.builder("ml.governor.lane.wait").tag("lane", tag)
+                    .description("Time ML requests spent queued before being sent")
+                    .publishPercentiles(0.5, 0.99).register(meterRegistry);
+        }
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        // Health checks (warm-up pings) are not rate limited
+        if (request.getMethod() != HttpMethod.POST) {
+            return execution.execute(request, body);
+        }
+        String laneHeader = request.getHeaders().getFirst(MLLane.HEADER);
+        MLLane marked = MLLane.fromHeader(laneHeader);
+        MLLane lane = marked != null ? marked : MLLane.current();
+        if (laneHeader != null) {
+            // Internal marker, not sent to the ML service
+            request.getHeaders().remove(MLLane.HEADER);
+        }
+        for (int attempt = 0; ; attempt++) {
+            // Fail fast while the circuit is open instead of queueing for capacity first
+            circuitBreaker.rejectIfOpen();
+            acquire(request, lane);
+            try {
+                circuitBreaker.acquirePermission();
+            } catch (IOException e) {
+                release(lane, 0, 0, null);
+                throw e;
+            }
+            long start = System.nanoTime();
+            ClientHttpResponse response;
+            int status;
+            try {
+                response = execution.execute(request, body);
+                status = response.getStatusCode().value();
+            } catch (IOException | RuntimeException e) {
+                long latency = System.nanoTime() - start;
+                circuitBreaker.record(true, latency);
+                release(lane, latency, 0, null);
+                throw e;
+            }
+            long latency = System.nanoTime() - start;
+            circuitBreaker.record(status >= 500, latency);
+            release(lane, latency, status, response.getHeaders().getFirst("Retry-After"));
+            if (!isThrottle(status) || attempt >= maxRetries) {
+                return response;
+            }
+            log.warn("ML service throttled {} ({}), retry {}/{} after backoff", request.getURI().getPath(), status, attempt + 1, maxRetries);
+            response.close();
+        }
+    }
+
+    /**
+     * Blocks until the request fits under the concurrency limit, its lane is next in turn, the bucket
+     * has a token and no Retry-After pause is active.
+     */
+    private void acquire(HttpRequest request, MLLane lane) throws IOException {
+        int l = lane.ordinal();
+        long enqueued = System.nanoTime();
+        long deadline = enqueued + maxWaitNanos;
+        lock.lock();
+        try {
+            if (laneWaiting[l]++ == 0) {
+                // A lane returning from idle does not get credit for the time it sent nothing
+                virtualTime[l] = Math.max(virtualTime[l], virtualClock);
+            }
+            try {
+                while (true) {
+                    long now = System.nanoTime();
+                    refill(now);
+                    long waitNanos;
+                    if (now - pausedUntil < 0) {
+                        waitNanos = pausedUntil - now;
+                    } else if (nextLane() != l) {
+                        waitNanos = deadline - now;
+                    } else if (tokens < 1) {
+                        waitNanos = (long) ((1 - tokens) / ratePerSecond * 1_000_000_000L);
+                    } else {
+                        tokens -= 1;
+                        inFlight++;
+                        laneInFlight[l]++;
+                        virtualClock = virtualTime[l];
+                        virtualTime[l] += 1 / laneWeights[l];
+                        laneWaits[l].record(now - enqueued, TimeUnit.NANOSECONDS);
+                        return;
+                    }
+                    long remaining = deadline - now;
+                    if (remaining <= 0) {
+                        throw new IOException("ML request " + request.getURI().getPath() + " (" + lane
+                                + " lane) timed out waiting for capacity");
+                    }
+                    capacity.awaitNanos(Math.max(1, Math.min(waitNanos, remaining)));
+                }
+            } finally {
+                laneWaiting[l]--;
+                // The next lane in turn may have changed
+                capacity.signalAll();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for ML capacity");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Lane whose waiting request goes next: the admissible lane with the smallest virtual time, ties to
+     * the higher priority; -1 when nothing can be admitted.
+     */
+    private int nextLane() {
+        int next = -1;
+        for (int m = 0; m < LANES.length; m++) {
+            if (laneWaiting[m] > 0 && admissible(m) && (next < 0 || virtualTime[m] < virtualTime[next])) {
+                next = m;
+            }
+        }
+        return next;
+    }
+
+    /**
+     * A lane may take a slot only if that leaves the unused reservations of every other lane free.
+     */
+    private boolean admissible(int lane) {
+        int free = (int) limit - inFlight;
+        int heldForOthers = 0;
+        for (int m = 0; m < LANES.length; m++) {
+            if (m != lane) {
+                heldForOthers += Math.max(0, reservedSlots(m) - laneInFlight[m]);
+            }
+        }
+        return free > heldForOthers;
+    }
+
+    /**
+     * Slots reserved for a lane at the current limit: its share rounded up, so any lane with a share keeps
+     * at least one slot even after throttling has cut the limit.
+     */
+    private int reservedSlots(int lane) {
+        return reservedShares[lane] > 0 ? (int) Math.ceil(limit * reservedShares[lane]) : 0;
+    }
+
+    /**
+     * @param status HTTP status, or 0 when the call failed without a response
+     */
+    private void release(MLLane lane, long latencyNanos, int status, String retryAfter) {
+        lock.lock();
+        try {
+            inFlight--;
+            laneInFlight[lane.ordinal()]--;
+            long now = System.nanoTime();
+            if (isThrottle(status)) {
+                throttled.increment();
+                long pauseMs = retryAfterMillis(retryAfter);
+                pausedUntil = Math.max(pausedUntil - now, TimeUnit.MILLISECONDS.toNanos(pauseMs)) + now;
+                // One cut per round trip: a burst of 429s from the same overload halves the limit once
+                if (now - lastDecrease > latencyNanos) {
+                    limit = Math.max(minLimit, limit / 2);
+                    lastDecrease = now;
+                    log.info("ML concurrency limit cut to {} after {}, pausing {}ms", (int) limit, status, pauseMs);
+                }
+            } else if (status >= 200 && status < 300) {
+                if (latencyNanos > slowCallNanos) {
+                    limit = Math.max(minLimit, limit * 0.9);
+                } else {
+                    limit = Math.min(maxLimit, limit + 1 / limit);
+                }
+            }
+            capacity.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(burst, tokens + (now - lastRefill) / 1_000_000_000.0 * ratePerSecond);
+        lastRefill = now;
+    }
+
+    private long retryAfterMillis(String retryAfter) {
+        if (retryAfter == null || retryAfter.isBlank()) {
+            return defaultBackoffMs;
+        }
+        try {
+            return Math.max(0, Long.parseLong(retryAfter.trim()) * 1000);
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime at = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, at.toInstant().toEpochMilli() - System.currentTimeMillis());
+            } catch (DateTimeParseException ignored) {
+                return defaultBackoffMs;
+            }
+        }
+    }
+
+    private static boolean isThrottle(int status) {
+        return status == 429 || status == 503;
+    }
+
+    private double currentLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int read(int[] perLane, MLLane lane) {
+        lock.lock();
+        try {
+            return perLane[lane.ordinal()];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int currentInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
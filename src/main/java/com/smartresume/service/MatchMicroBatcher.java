@@ -0,0 +1,147 @@
+package com.smartresume.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Collects concurrent single resume/JD matches for a short window and sends them to the ML service
+ * as one batch-analyze request, then hands every caller its own entry of the response.
+ * A batch is flushed when the window closes or as soon as it reaches the maximum size.
+ */
+@Slf4j
+class MatchMicroBatcher {
+
+    private final long windowMs;
+    private final int maxBatchSize;
+    private final Function<List<Map<String, String>>, List<Map<String, Object>>> sender;
+    private final ScheduledExecutorService executor;
+
+    private List<Pending> pending = new ArrayList<>();
+    // Bumped whenever pending is swapped out, so a window timer never flushes a later batch early
+    private long generation;
+
+    private record Pending(Map<String, String> item, MLLane lane, CompletableFuture<Map<String, Object>> future) {
+    }
+
+    /**
+     * @param sender posts one batch-analyze request and returns its results, matched back by applicationId
+     */
+    MatchMicroBatcher(long windowMs, int maxBatchSize, int workers,
+                      Function<List<Map<String, String>>, List<Map<String, Object>>> sender) {
+        this.windowMs = windowMs;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.sender = sender;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newScheduledThreadPool(Math.max(1, workers), r -> {
+            Thread t = new Thread(r, "ml-batch-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Queues one match and blocks until its batch has been answered. Errors of the batch request
+     * (including 429s) are rethrown unchanged so the caller's retry handling still applies.
+     */
+    Map<String, Object> analyze(String resumeText, String jobDescription) {
+        Map<String, String> item = new HashMap<>();
+        item.put("resumeText", resumeText);
+        item.put("jobDescription", jobDescription);
+        CompletableFuture<Map<String, Object>> future = new CompletableFuture<>();
+
+        List<Pending> full = null;
+        boolean firstInWindow;
+        long window;
+        synchronized (this) {
+            pending.add(new Pending(item, MLLane.current(), future));
+            firstInWindow = pending.size() == 1;
+            window = generation;
+            if (pending.size() >= maxBatchSize) {
+                full = pending;
+                pending = new ArrayList<>();
+                generation++;
+            }
+        }
+        if (full != null) {
+            List<Pending> batch = full;
+            executor.execute(() -> send(batch));
+        } else if (firstInWindow) {
+            executor.schedule(() -> flush(window), windowMs, TimeUnit.MILLISECONDS);
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a batched ML match", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void flush(long window) {
+        List<Pending> batch;
+        synchronized (this) {
+            if (window != generation || pending.isEmpty()) {
+                // Already sent because it filled up before the window closed
+                return;
+            }
+            batch = pending;
+            pending = new ArrayList<>();
+            generation++;
+        }
+        send(batch);
+    }
+
+    private void send(List<Pending> batch) {
+        List<Map<String, String>> items = new ArrayList<>(batch.size());
+        // The batch is sent in the most urgent lane of any caller waiting on it
+        MLLane urgent = MLLane.BACKGROUND;
+        for (int i = 0; i < batch.size(); i++) {
+            Map<String, String> item = batch.get(i).item();
+            item.put("applicationId", String.valueOf(i));
+            items.add(item);
+            if (batch.get(i).lane().compareTo(urgent) < 0) {
+                urgent = batch.get(i).lane();
+            }
+        }
+        MLLane lane = urgent;
+        try {
+            List<Map<String, Object>> results = MLLane.callAs(lane, () -> sender.apply(items));
+            Map<String, Map<String, Object>> byId = new HashMap<>();
+            if (results != null) {
+                results.forEach(r -> byId.put(String.valueOf(r.get("applicationId")), r));
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                Map<String, Object> result = byId.get(String.valueOf(i));
+                if (result != null) {
+                    batch.get(i).future().complete(result);
+                } else {
+                    batch.get(i).future().completeExceptionally(
+                            new IllegalStateException("ML batch-analyze returned no result for this match"));
+                }
+            }
+            log.debug("Micro-batch of {} matches answered", batch.size());
+        } catch (RuntimeException e) {
+            batch.forEach(p -> p.future().completeExceptionally(e));
+        }
+    }
+}
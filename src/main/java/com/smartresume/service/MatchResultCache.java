@@ -0,0 +1,129 @@
+package com.smartresume.service;
+
+import com.smartresume.model.MLAnalysisResult;
+import com.smartresume.util.Hashing;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size-bounded LRU + TTL cache of resume/JD match results.
+ * Keys are SHA-256 fingerprints of the whitespace-normalised resume text, JD text and the ML model
+ * version, so a pre-application score check followed by applyToJob costs a single ML round trip,
+ * and a model upgrade (new ml.model.version) never serves stale scores.
+ */
+@Component
+public class MatchResultCache {
+
+    private final Map<String, Entry> entries;
+    private final long ttlNanos;
+    private final String modelVersion;
+    private final Counter hits;
+    private final Counter misses;
+
+    private record Entry(MLAnalysisResult result, long expiresAt) {
+    }
+
+    public MatchResultCache(MeterRegistry meterRegistry,
+                            @Value("${ml.match-cache.max-entries:5000}") int maxEntries,
+                            @Value("${ml.match-cache.ttl-minutes:360}") long ttlMinutes,
+                            @Value("${ml.model.version:v1}") String modelVersion) {
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.ttlNanos = ttlMinutes * 60_000_000_000L;
+        this.modelVersion = modelVersion;
+        this.hits = Counter.builder("ml.match.cache").tag("result", "hit")
+                .description("analyzeMatch calls served from the match-result cache").register(meterRegistry);
+        this.misses = Counter.builder("ml.match.cache").tag("result", "miss")
+                .description("analyzeMatch calls that went to the ML service").register(meterRegistry);
+        Gauge.builder("ml.match.cache.size", this, MatchResultCache::size).register(meterRegistry);
+    }
+
+    public String key(String resumeText, String jobDescription) {
+        return Hashing.sha256Hex(normalize(resumeText)) + ":" + Hashing.sha256Hex(normalize(jobDescription)) + ":" + modelVersion;
+    }
+
+    /**
+     * Returns a copy of the cached result, or null on a miss or when the entry has expired.
+     */
+    public MLAnalysisResult get(String key) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && System.nanoTime() - entry.expiresAt() > 0) {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return copy(entry.result());
+    }
+
+    public void put(String key, MLAnalysisResult result) {
+        Entry entry = new Entry(copy(result), System.nanoTime() + ttlNanos);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Whitespace runs and surrounding blanks do not change the ML score, so they do not change the key.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = normalized.length() > 0;
+                continue;
+            }
+            if (space) {
+                normalized.append(' ');
+                space = false;
+            }
+            normalized.append(c);
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Callers treat results as their own, so the cache never hands out the stored instance.
+     * Also used for results shared between coalesced ML calls.
+     */
+    static MLAnalysisResult copy(MLAnalysisResult source) {
+        MLAnalysisResult copy = new MLAnalysisResult();
+        copy.setMatchScore(source.getMatchScore());
+        copy.setSkillsMatched(source.getSkillsMatched() != null ? new ArrayList<>(source.getSkillsMatched()) : null);
+        copy.setSkillsGap(source.getSkillsGap() != null ? new ArrayList<>(source.getSkillsGap()) : null);
+        copy.setExperienceMatch(source.getExperienceMatch());
+        copy.setConfidence(source.getConfidence());
+        copy.setPredictedRole(source.getPredictedRole());
+        copy.setStatus(source.getStatus());
+        copy.setAnalyzedAt(source.getAnalyzedAt());
+        return copy;
+    }
+}
@@ -0,0 +1,172 @@
+package com.smartresume.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import net.sourceforge.tess4j.ITesseract;
+import net.sourceforge.tess4j.Tesseract;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOException;
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dedicated OCR subsystem for image resumes.
+ * A fixed pool of pre-initialised Tesseract instances (one per worker thread, sized to the CPU count
+ * by default) runs behind a bounded admission queue. When the queue is full new work is rejected
+ * immediately with {@link OcrCapacityExceededException} instead of piling up request threads.
+ */
+@Component
+@Slf4j
+public class OcrEngine {
+
+    private static final int MAX_DIMENSION = 800;
+
+    private static final String[] TESSDATA_CANDIDATES = {
+            "/usr/share/tesseract-ocr/4.00/tessdata", // Ubuntu (Render)
+            "/usr/share/tesseract-ocr/5/tessdata"
+    };
+
+    private final BlockingQueue<ITesseract> instances;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+
+    public OcrEngine(@Value("${ocr.pool.size:0}") int poolSize,
+                     @Value("${ocr.queue.capacity:16}") int queueCapacity,
+                     @Value("${ocr.timeout-ms:60000}") long timeoutMs) {
+        int size = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        this.timeoutMs = timeoutMs;
+
+        // Probe the tessdata location once instead of on every upload
+        String datapath = null;
+        for (String candidate : TESSDATA_CANDIDATES) {
+            if (new File(candidate).exists()) {
+                datapath = candidate;
+                break;
+            }
+        }
+        this.instances = new ArrayBlockingQueue<>(size);
+        for (int i = 0; i < size; i++) {
+            instances.add(newTesseract(datapath));
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                r -> {
+                    Thread t = new Thread(r, "ocr-worker-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("OCR engine ready: {} Tesseract workers, admission queue of {}, tessdata={}", size, queueCapacity, datapath);
+    }
+
+    /**
+     * Runs OCR over the given image bytes on the OCR pool and waits for the text.
+     *
+     * @throws OcrCapacityExceededException when every worker is busy and the admission queue is full
+     */
+    public String recognize(byte[] imageBytes) throws IOException {
+        Future<String> future;
+        try {
+            future = executor.submit(() -> runOcr(imageBytes));
+        } catch (RejectedExecutionException e) {
+            log.warn("OCR admission queue full ({} queued), shedding request", executor.getQueue().size());
+            throw new OcrCapacityExceededException("OCR is at capacity right now. Please retry in a few seconds or upload a PDF resume.");
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new IOException("OCR timed out after " + timeoutMs + "ms");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IOException("OCR interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("OCR failed: " + cause.getMessage(), cause);
+        }
+    }
+
+    private String runOcr(byte[] imageBytes) throws Exception {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(imageBytes));
+        if (image == null) {
+            throw new IIOException("Unsupported image format");
+        }
+        BufferedImage prepared = downscale(image);
+
+        ITesseract tesseract = instances.take();
+        try {
+            return tesseract.doOCR(prepared);
+        } finally {
+            instances.offer(tesseract);
+        }
+    }
+
+    /**
+     * Optimize image for faster OCR: scale down large images and convert to grayscale, all in memory.
+     */
+    private static BufferedImage downscale(BufferedImage originalImage) {
+        if (originalImage.getWidth() <= MAX_DIMENSION && originalImage.getHeight() <= MAX_DIMENSION) {
+            return originalImage;
+        }
+        double scale = Math.min((double) MAX_DIMENSION / originalImage.getWidth(), (double) MAX_DIMENSION / originalImage.getHeight());
+        int newWidth = (int) (originalImage.getWidth() * scale);
+        int newHeight = (int) (originalImage.getHeight() * scale);
+
+        BufferedImage resizedImage = new BufferedImage(newWidth, newHeight, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = resizedImage.createGraphics();
+        g.drawImage(originalImage, 0, 0, newWidth, newHeight, null);
+        g.dispose();
+        return resizedImage;
+    }
+
+    private static ITesseract newTesseract(String datapath) {
+        ITesseract tesseract = new Tesseract();
+        if (datapath != null) {
+            tesseract.setDatapath(datapath);
+        }
+        tesseract.setLanguage("eng");
+        // Use fast LSTM mode for much faster performance
+        tesseract.setOcrEngineMode(1);
+        // Assume single column of text to skip complex layout analysis (massive speedup)
+        tesseract.setPageSegMode(4);
+        tesseract.setTessVariable("load_system_dawg", "F");
+        tesseract.setTessVariable("load_freq_dawg", "F");
+        return tesseract;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Raised when the OCR pool sheds load; callers should surface it rather than fall back.
+     */
+    public static class OcrCapacityExceededException extends RuntimeException {
+        public OcrCapacityExceededException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.smartresume.service;
+
+import com.smartresume.model.ExtractionResult;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Heap-bounded PDF text extraction.
+ * Documents are parsed with scratch-file-backed memory settings, capped at a maximum page count and
+ * run on a dedicated executor under a per-document deadline. A timed-out extraction is cancelled
+ * between pages and returns whatever text was read in time, flagged in the {@link ExtractionResult}.
+ *
+ * <p>With {@link Strategy#PAGE_PARALLEL} long documents are split into page ranges that are extracted
+ * on a fork/join pool, each range from its own {@link PDDocument}, and reassembled in page order.
+ */
+@Component
+@Slf4j
+public class PdfTextExtractor {
+
+    public enum Strategy {
+        /** One stripper over the whole document on a single thread. */
+        SEQUENTIAL,
+        /** Page ranges extracted concurrently on the fork/join pool, for long CVs, portfolios and JDs. */
+        PAGE_PARALLEL
+    }
+
+    private final ExecutorService executor;
+    private final ForkJoinPool pagePool;
+    private final Strategy defaultStrategy;
+    private final long maxMainMemoryBytes;
+    private final int maxPages;
+    private final long timeoutMs;
+    private final int pagesPerTask;
+    private final int parallelMinPages;
+
+    public PdfTextExtractor(@Value("${extraction.pdf.workers:0}") int workers,
+                            @Value("${extraction.pdf.max-main-memory-mb:16}") long maxMainMemoryMb,
+                            @Value("${extraction.pdf.max-pages:40}") int maxPages,
+                            @Value("${extraction.pdf.timeout-ms:20000}") long timeoutMs,
+                            @Value("${extraction.pdf.strategy:SEQUENTIAL}") Strategy defaultStrategy,
+                            @Value("${extraction.pdf.parallelism:0}") int parallelism,
+                            @Value("${extraction.pdf.pages-per-task:4}") int pagesPerTask,
+                            @Value("${extraction.pdf.parallel-min-pages:8}") int parallelMinPages) {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(workers > 0 ? workers : cpus, r -> {
+            Thread t = new Thread(r, "pdf-extract-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.pagePool = new ForkJoinPool(parallelism > 0 ? parallelism : cpus);
+        this.defaultStrategy = defaultStrategy;
+        this.maxMainMemoryBytes = maxMainMemoryMb * 1024 * 1024;
+        this.maxPages = maxPages;
+        this.timeoutMs = timeoutMs;
+        this.pagesPerTask = Math.max(1, pagesPerTask);
+        this.parallelMinPages = parallelMinPages;
+    }
+
+    public ExtractionResult extract(byte[] content) throws IOException {
+        return extract(content, defaultStrategy);
+    }
+
+    public ExtractionResult extract(byte[] content, Strategy strategy) throws IOException {
+        Extraction extraction = new Extraction(content, strategy != null ? strategy : defaultStrategy);
+        Future<?> future = executor.submit(() -> {
+            extraction.run();
+            return null;
+        });
+
+        boolean timedOut = false;
+        try {
+            future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            extraction.cancelled.set(true);
+            future.cancel(true);
+            timedOut = true;
+            log.warn("PDF extraction hit the {}ms deadline after {} of {} pages", timeoutMs, extraction.pagesRead.get(), extraction.pageCount);
+        } catch (InterruptedException e) {
+            extraction.cancelled.set(true);
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IOException("PDF extraction interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException unchecked) {
+                cause = unchecked.getCause();
+            }
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("PDF extraction failed: " + cause.getMessage(), cause);
+        }
+
+        ExtractionResult result = extraction.result(timedOut);
+        if (result.isTruncated()) {
+            log.info("PDF has {} pages, extracted only the first {}", result.getPageCount(), maxPages);
+        }
+        return result;
+    }
+
+    private PDDocument load(byte[] content) throws IOException {
+        // Keep at most maxMainMemoryBytes of parsed streams on the heap, spill the rest to a scratch file
+        return PDDocument.load(content, "", null, null, MemoryUsageSetting.setupMixed(maxMainMemoryBytes));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        pagePool.shutdownNow();
+    }
+
+    /**
+     * State of one document extraction, shared between the deadline watcher and the workers.
+     */
+    private class Extraction {
+        private final byte[] content;
+        private final Strategy strategy;
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private final AtomicInteger pagesRead = new AtomicInteger();
+        private final StringWriter output = new StringWriter();
+        private volatile int pageCount;
+        private volatile int lastPage;
+        // Set only for page-parallel runs: text of each page range, in page order
+        private volatile AtomicReferenceArray<String> rangeTexts;
+
+        Extraction(byte[] content, Strategy strategy) {
+            this.content = content;
+            this.strategy = strategy;
+        }
+
+        void run() throws IOException {
+            try (PDDocument document = load(content)) {
+                pageCount = document.getNumberOfPages();
+                lastPage = Math.min(pageCount, maxPages);
+                if (strategy == Strategy.SEQUENTIAL || lastPage < parallelMinPages) {
+                    CancellableStripper stripper = new CancellableStripper(cancelled, pagesRead);
+                    stripper.setEndPage(lastPage);
+                    stripper.writeText(document, output);
+                    return;
+                }
+            }
+            // Every range opens its own document: PDDocument is not safe to share across threads
+            int ranges = (lastPage + pagesPerTask - 1) / pagesPerTask;
+            rangeTexts = new AtomicReferenceArray<>(ranges);
+            pagePool.invoke(new PageRangeTask(0, ranges));
+        }
+
+        ExtractionResult result(boolean timedOut) {
+            boolean truncated = pageCount > maxPages;
+            AtomicReferenceArray<String> texts = rangeTexts;
+            if (texts == null) {
+                return new ExtractionResult(output.toString(), pageCount, pagesRead.get(), truncated, timedOut);
+            }
+            // Reassemble in page order; after a deadline only the leading run of finished ranges is usable
+            StringBuilder text = new StringBuilder();
+            int pages = 0;
+            for (int i = 0; i < texts.length(); i++) {
+                String rangeText = texts.get(i);
+                if (rangeText == null) {
+                    break;
+                }
+                text.append(rangeText);
+                pages = Math.min(lastPage, (i + 1) * pagesPerTask);
+            }
+            return new ExtractionResult(text.toString(), pageCount, pages, truncated, timedOut);
+        }
+
+        /**
+         * Splits the range indices in halves until a single range of pagesPerTask pages is left.
+         */
+        private class PageRangeTask extends RecursiveAction {
+            private final int from;
+            private final int to;
+
+            PageRangeTask(int from, int to) {
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected void compute() {
+                if (cancelled.get()) {
+                    return;
+                }
+                if (to - from > 1) {
+                    int mid = (from + to) >>> 1;
+                    invokeAll(new PageRangeTask(from, mid), new PageRangeTask(mid, to));
+                    return;
+                }
+                int startPage = from * pagesPerTask + 1;
+                int endPage = Math.min(lastPage, startPage + pagesPerTask - 1);
+                try (PDDocument document = load(content)) {
+                    CancellableStripper stripper = new CancellableStripper(cancelled, pagesRead);
+                    stripper.setStartPage(startPage);
+                    stripper.setEndPage(endPage);
+                    rangeTexts.set(from, stripper.getText(document));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Text stripper that checks for cancellation before every page so a deadline actually stops the work.
+     */
+    static class CancellableStripper extends PDFTextStripper {
+        private final AtomicBoolean cancelled;
+        private final AtomicInteger pagesRead;
+
+        CancellableStripper(AtomicBoolean cancelled, AtomicInteger pagesRead) throws IOException {
+            this.cancelled = cancelled;
+            this.pagesRead = pagesRead;
+        }
+
+        @Override
+        protected void startPage(PDPage page) throws IOException {
+            if (cancelled.get() || Thread.currentThread().isInterrupted()) {
+                throw new IOException("PDF extraction cancelled");
+            }
+            super.startPage(page);
+        }
+
+        @Override
+        protected void endPage(PDPage page) throws IOException {
+            super.endPage(page);
+            pagesRead.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.smartresume.service;
+
+import com.smartresume.util.SimilarityMatrix;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * In-JVM replacement for the ML service's /api/ml/matrix-analyze. Embeddings come from
+ * {@link EmbeddingStore}, so each resume and JD is embedded once no matter how many pairs it is part of.
+ * The semantic matrix is a blocked dot product of the unit vectors, and keyword/overlap/gap scores come
+ * from {@link LocalMatchScorer}. Both run on this engine's fork/join pool. Scores use the ML service's
+ * formula: 50% semantic, 30% keyword, 20% skill overlap.
+ */
+@Component
+@Slf4j
+public class PlacementMatrixEngine {
+
+    /** A resume or JD: the id echoed back in results and its text */
+    public record Document(String id, String text) {
+    }
+
+    private final EmbeddingStore embeddingStore;
+    private final LocalMatchScorer localMatchScorer;
+    private final ForkJoinPool pool;
+
+    public PlacementMatrixEngine(EmbeddingStore embeddingStore, LocalMatchScorer localMatchScorer,
+                                 @Value("${ml.matrix.parallelism:0}") int parallelism) {
+        this.embeddingStore = embeddingStore;
+        this.localMatchScorer = localMatchScorer;
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.pool = new ForkJoinPool(threads, p -> {
+            var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName("placement-matrix-" + counter.incrementAndGet());
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Scores every resume against every JD. Results have the matrix-analyze shape: one entry per resume
+     * with applicationId and its matches (jdIndex, jobId, matchScore, semanticScore, keywordScore,
+     * missingSkills) sorted best first. ML errors while fetching embeddings are thrown.
+     */
+    public List<Map<String, Object>> score(List<Document> jds, List<Document> resumes) {
+        long start = System.nanoTime();
+        float[][] jdVectors = embeddingStore.embed(jds.stream().map(Document::text).toList());
+        float[][] resumeVectors = embeddingStore.embed(resumes.stream().map(Document::text).toList());
+        float[][] semantic = SimilarityMatrix.cosine(resumeVectors, jdVectors, pool);
+
+        List<Map<String, Object>> results = pool.submit(() -> IntStream.range(0, resumes.size()).parallel()
+                .mapToObj(i -> scoreResume(resumes.get(i), jds, semantic[i]))
+                .toList()).join();
+        log.info("Placement matrix {} resumes x {} JDs scored in {} ms", resumes.size(), jds.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return results;
+    }
+
+    private Map<String, Object> scoreResume(Document resume, List<Document> jds, float[] semanticRow) {
+        List<Map<String, Object>> matches = new ArrayList<>(jds.size());
+        for (int j = 0; j < jds.size(); j++) {
+            LocalMatchScorer.Match lexical = localMatchScorer.score(resume.text(), jds.get(j).text());
+            double semanticScore = semanticRow[j] * 100.0;
+            double matchScore = semanticScore * 0.50 + lexical.keywordScore() * 0.30 + lexical.skillOverlap() * 0.20;
+
+            Map<String, Object> match = new HashMap<>();
+            match.put("jdIndex", j);
+            match.put("jobId", jds.get(j).id());
+            match.put("matchScore", round1(matchScore));
+            match.put("semanticScore", round1(semanticScore));
+            match.put("keywordScore", lexical.keywordScore());
+            match.put("missingSkills", lexical.skillsGap());
+            matches.add(match);
+        }
+        matches.sort((a, b) -> Double.compare((Double) b.get("matchScore"), (Double) a.get("matchScore")));
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("applicationId", resume.id());
+        result.put("matches", matches);
+        return result;
+    }
+
+    private static double round1(double value) {
+        return Math.round(value * 10.0) / 10.0;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,194 @@
+package com.smartresume.service;
+
+import com.smartresume.model.ParseTask;
+import com.smartresume.model.ResumeMeta;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background parse pipeline behind resume uploads.
+ * The upload returns as soon as the file is stored; text extraction, ML skill extraction and the
+ * heuristic profile parser then run on a bounded worker pool. Progress is kept in an in-memory
+ * registry that clients poll or subscribe to as server-sent events.
+ */
+@Service
+@Slf4j
+public class ResumeParsePipeline {
+
+    private final ResumeService resumeService;
+    private final MLIntegrationService mlIntegrationService;
+    private final ResumeParser resumeParser;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, ParseTask> tasks = new ConcurrentHashMap<>();
+    private final Map<String, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final long retentionMinutes;
+    private final long sseTimeoutMs;
+
+    public ResumeParsePipeline(ResumeService resumeService,
+                               MLIntegrationService mlIntegrationService,
+                               ResumeParser resumeParser,
+                               @Value("${resume.parse.workers:4}") int workers,
+                               @Value("${resume.parse.queue-capacity:200}") int queueCapacity,
+                               @Value("${resume.parse.retention-minutes:30}") long retentionMinutes,
+                               @Value("${resume.parse.sse-timeout-ms:180000}") long sseTimeoutMs) {
+        this.resumeService = resumeService;
+        this.mlIntegrationService = mlIntegrationService;
+        this.resumeParser = resumeParser;
+        this.retentionMinutes = retentionMinutes;
+        this.sseTimeoutMs = sseTimeoutMs;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                r -> {
+                    Thread t = new Thread(r, "resume-parse-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    /**
+     * Registers a parse task for a freshly stored resume and queues it on the worker pool.
+     */
+    public ParseTask submit(ResumeMeta meta) {
+        ParseTask task = new ParseTask();
+        task.setId(UUID.randomUUID().toString());
+        task.setResumeId(meta.getId());
+        task.setOwnerId(meta.getOwnerId());
+        task.setStage(ParseTask.Stage.QUEUED);
+        task.setCreatedAt(LocalDateTime.now());
+        task.setUpdatedAt(task.getCreatedAt());
+        tasks.put(task.getId(), task);
+        try {
+            executor.execute(() -> run(task));
+        } catch (RejectedExecutionException e) {
+            // The file is safely stored; only the auto-fill is skipped when the pool is saturated
+            log.warn("Resume parse queue full, skipping auto-fill for resume {}", meta.getId());
+            fail(task, "Resume parsing is busy right now, please fill in your profile manually.");
+        }
+        return task;
+    }
+
+    /**
+     * Looks up a task, visible only to the user who uploaded the resume.
+     */
+    public Optional<ParseTask> find(String taskId, String ownerId) {
+        ParseTask task = tasks.get(taskId);
+        if (task == null || !task.getOwnerId().equals(ownerId)) {
+            return Optional.empty();
+        }
+        return Optional.of(task);
+    }
+
+    /**
+     * Streams "status" events for the task until it completes or fails.
+     */
+    public SseEmitter subscribe(ParseTask task) {
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        synchronized (task) {
+            if (!send(emitter, task.toStatus())) {
+                return emitter;
+            }
+            if (task.getStage().isTerminal()) {
+                emitter.complete();
+                return emitter;
+            }
+            List<SseEmitter> list = subscribers.computeIfAbsent(task.getId(), k -> new CopyOnWriteArrayList<>());
+            list.add(emitter);
+            emitter.onCompletion(() -> list.remove(emitter));
+            emitter.onTimeout(() -> list.remove(emitter));
+            emitter.onError(e -> list.remove(emitter));
+        }
+        return emitter;
+    }
+
+    private void run(ParseTask task) {
+        try {
+            advance(task, ParseTask.Stage.EXTRACTING);
+            String resumeText = resumeService.extractTextFromResume(task.getResumeId());
+
+            advance(task, ParseTask.Stage.ML_SKILLS);
+            Map<String, Object> mlData = mlIntegrationService.extractSkills(resumeText);
+            if (mlData == null) {
+                log.warn("ML skill extraction unavailable for {}; falling back to the Java parser", task.getResumeId());
+            }
+
+            advance(task, ParseTask.Stage.PARSING);
+            Map<String, Object> extracted = resumeParser.parseResume(resumeText, mlData);
+
+            synchronized (task) {
+                task.setExtractedData(extracted);
+                advance(task, ParseTask.Stage.COMPLETED);
+            }
+        } catch (Exception e) {
+            log.warn("Resume parse failed for {}: {}", task.getResumeId(), e.getMessage());
+            fail(task, e.getMessage() != null ? e.getMessage() : "Resume parsing failed");
+        }
+    }
+
+    private void fail(ParseTask task, String error) {
+        synchronized (task) {
+            task.setError(error);
+            advance(task, ParseTask.Stage.FAILED);
+        }
+    }
+
+    private void advance(ParseTask task, ParseTask.Stage stage) {
+        synchronized (task) {
+            task.setStage(stage);
+            task.setUpdatedAt(LocalDateTime.now());
+            Map<String, Object> status = task.toStatus();
+            List<SseEmitter> list = stage.isTerminal() ? subscribers.remove(task.getId()) : subscribers.get(task.getId());
+            if (list == null) {
+                return;
+            }
+            for (SseEmitter emitter : list) {
+                if (send(emitter, status) && stage.isTerminal()) {
+                    emitter.complete();
+                }
+            }
+        }
+    }
+
+    private static boolean send(SseEmitter emitter, Map<String, Object> status) {
+        try {
+            emitter.send(SseEmitter.event().name("status").data(status));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the emitter's error callback unregisters it
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    /**
+     * Finished tasks stay pollable for a while after completion, then are dropped.
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void evictFinishedTasks() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        tasks.values().removeIf(task -> task.getStage().isTerminal() && task.getUpdatedAt().isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
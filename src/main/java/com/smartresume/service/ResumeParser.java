@@ -0,0 +1,400 @@
+package com.smartresume.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Heuristic parser for resume and JD text.
+ * The text is walked once, line by line: every line is lower-cased once, checked for section headings
+ * and fed to the per-field extractors, which only ever look at that line. All patterns are compiled once.
+ */
+@Service
+@RequiredArgsConstructor
+public class ResumeParser {
+
+    private static final Pattern YEARS = Pattern.compile("(\\d+)\\+?\\s*years?");
+    private static final Pattern GITHUB = Pattern.compile("github\\.com/([\\w-]+)");
+    private static final Pattern LINKEDIN = Pattern.compile("linkedin\\.com/in/([\\w-]+)");
+    private static final Pattern INSTITUTION = Pattern.compile("([a-zA-Z\\s]+(?:university|college|institute|academy))", Pattern.CASE_INSENSITIVE);
+    private static final Pattern LOCATION = Pattern.compile("(?i)(New York|San Francisco|London|Bengaluru|Mumbai|Delhi|Hyderabad|Pune|Chennai|Remote|India|USA|UK)[,\\s]*(India|USA|UK)?");
+    private static final Pattern PROJECT_VERB = Pattern.compile("(?i)(?:built|developed|created|designed|implemented).*?([a-zA-Z0-9 ]{15,100})");
+    private static final Pattern BULLET = Pattern.compile("^[-*•]\\s*");
+    private static final Pattern LEADING_PUNCTUATION = Pattern.compile("^\\s*[\\-\\*:]\\s*");
+    private static final Pattern COMPANY = Pattern.compile("(?i)Company:\\s*(.+)");
+    private static final Pattern JD_LOCATION = Pattern.compile("(?i)Location:\\s*(.+)");
+    private static final Pattern JOB_TYPE = Pattern.compile("(?i)Job Type:\\s*(.+)");
+    private static final Pattern SALARY = Pattern.compile("(?i)Salary Range:\\s*(.+)");
+
+    private static final String DEFAULT_INSTITUTION = "University / College";
+    private static final int MAX_PROJECT_SECTION = 300;
+    private static final int MAX_EXPERIENCE_BLOCKS = 3;
+
+    private static final String[] COMMON_ROLES = {"Software Engineer", "Developer", "Intern", "Internship", "Manager", "Analyst", "Data Scientist", "Consultant", "Engineer", "Designer", "Lead"};
+
+    private enum Section { NONE, SUMMARY, PROJECTS, EXPERIENCE, EDUCATION, SKILLS, OTHER }
+
+    private final SkillMatcher skillMatcher;
+
+    /**
+     * Structured fields of a job description; strings are empty when not found.
+     */
+    public record JobDescriptionFields(String jobTitle, String company, String location, String jobType,
+                                       String salary, String description, String requirements,
+                                       List<String> skills) {
+    }
+
+    /**
+     * Profile auto-fill data for a resume. Fields found in the text fill in and override those of
+     * {@code mlData}, which is left unchanged.
+     */
+    public Map<String, Object> parseResume(String resumeText, Map<String, Object> mlData) {
+        Map<String, Object> extracted = (mlData != null) ? new HashMap<>(mlData) : new HashMap<>();
+        ResumeScan scan = new ResumeScan();
+        forEachLine(resumeText, scan::accept);
+        scan.finish();
+
+        // 1. Skills (single pass over the skills database automaton)
+        SkillMatcher.Mentions mentions = skillMatcher.scan(resumeText);
+        List<String> foundSkills = mentions.technicalNames();
+        if (!extracted.containsKey("softSkills")) {
+            extracted.put("softSkills", mentions.softNames());
+        }
+        // Override ML skills if Java found more
+        if (!extracted.containsKey("technicalSkills") || foundSkills.size() > 2) {
+            extracted.put("technicalSkills", foundSkills);
+        }
+
+        // 2. Experience
+        if (scan.years != null) {
+            extracted.put("experience", scan.years + " years");
+        } else if (!extracted.containsKey("experience")) {
+            extracted.put("experience", "Not specified");
+        }
+
+        // 3. GitHub & LinkedIn
+        if (scan.github != null) {
+            extracted.put("github", "https://github.com/" + scan.github);
+        }
+        if (scan.linkedin != null) {
+            extracted.put("linkedin", "https://linkedin.com/in/" + scan.linkedin);
+        }
+
+        // 4. Education
+        List<String> foundEd = new ArrayList<>();
+        if (scan.bachelorTech) foundEd.add("B.Tech / B.E.");
+        else if (scan.bachelorScience) foundEd.add("B.S.");
+        else if (scan.bachelorArts) foundEd.add("B.A.");
+        else if (scan.bachelorOther) foundEd.add("Bachelor's Degree");
+
+        if (scan.masterTech) foundEd.add("M.Tech");
+        else if (scan.masterScience) foundEd.add("M.S.");
+        else if (scan.masterOther) foundEd.add("Master's Degree");
+
+        String institution = scan.institution != null ? scan.institution : DEFAULT_INSTITUTION;
+        if (foundEd.isEmpty() && scan.institution != null) {
+            foundEd.add("Degree"); // If we found a university but no degree name
+        }
+        if (!foundEd.isEmpty() || scan.institution != null) {
+            extracted.put("educationDegree", foundEd.isEmpty() ? "Degree" : foundEd.get(0));
+            extracted.put("educationInstitution", institution);
+        }
+
+        // 5. Projects
+        List<String> foundProj = scan.projects;
+        if (foundProj.isEmpty()) {
+            if (scan.projectSentence != null) {
+                foundProj.add(scan.projectSentence);
+            } else if (scan.github != null) {
+                foundProj.add("Personal Project (See GitHub: " + scan.github + ")");
+            }
+        }
+        extracted.put("projects", foundProj);
+
+        // 6. Professional Experience Blocks
+        List<Map<String, String>> expBlocks = new ArrayList<>();
+        for (int i = 0; i < COMMON_ROLES.length && expBlocks.size() < MAX_EXPERIENCE_BLOCKS; i++) {
+            if (scan.roles[i]) {
+                String displayRole = COMMON_ROLES[i].equals("Internship") ? "Intern" : COMMON_ROLES[i];
+                Map<String, String> eb = new HashMap<>();
+                eb.put("role", displayRole);
+                eb.put("comp", "Company / Organization");
+                eb.put("start", "2020");
+                eb.put("end", "Present");
+                eb.put("desc", "Worked in a professional capacity as a " + displayRole + ".");
+                expBlocks.add(eb);
+            }
+        }
+        extracted.put("experienceBlocks", expBlocks);
+
+        // If explicit years wasn't found, estimate from experience blocks
+        if (!extracted.containsKey("experience") || extracted.get("experience").equals("Not specified")) {
+            extracted.put("experience", expBlocks.size() + " years");
+        }
+
+        // 7. Personal Info (Name, Location, Bio)
+        if (scan.name != null) extracted.put("name", scan.name);
+        if (scan.location != null) extracted.put("location", scan.location);
+        if (scan.bio != null) extracted.put("bio", scan.bio);
+
+        return extracted;
+    }
+
+    /**
+     * Title, labelled fields and the description / requirements sections of a job description.
+     */
+    public JobDescriptionFields parseJobDescription(String text) {
+        JobDescriptionScan scan = new JobDescriptionScan();
+        forEachLine(text, scan::accept);
+
+        String description;
+        String requirements = "";
+        // "job description" wins wherever it appears; "role summary" is only the fallback
+        int descIdx = scan.descriptionHeading >= 0 ? scan.descriptionHeading : scan.roleSummaryHeading;
+        int reqIdx = scan.requirementsHeading >= 0 ? scan.requirementsHeading
+                : scan.qualificationsHeading >= 0 ? scan.qualificationsHeading
+                : scan.skillsHeading;
+        if (descIdx != -1 && reqIdx != -1 && reqIdx > descIdx) {
+            int descEndLine = text.indexOf('\n', descIdx);
+            int reqEndLine = text.indexOf('\n', reqIdx);
+            description = text.substring(descEndLine != -1 ? descEndLine : Math.min(text.length(), descIdx + 15), reqIdx).trim();
+            requirements = text.substring(reqEndLine != -1 ? reqEndLine : Math.min(text.length(), reqIdx + 12)).trim();
+        } else if (descIdx != -1) {
+            int descEndLine = text.indexOf('\n', descIdx);
+            description = text.substring(descEndLine != -1 ? descEndLine : Math.min(text.length(), descIdx + 15)).trim();
+        } else if (reqIdx != -1) {
+            int reqEndLine = text.indexOf('\n', reqIdx);
+            description = text.substring(0, reqIdx).trim();
+            requirements = text.substring(reqEndLine != -1 ? reqEndLine : Math.min(text.length(), reqIdx + 12)).trim();
+        } else {
+            description = text;
+        }
+
+        String title = scan.title != null ? scan.title : "Parsed Job Title";
+        if (title.length() > 100) title = title.substring(0, 100);
+
+        return new JobDescriptionFields(title, orEmpty(scan.company), orEmpty(scan.location), orEmpty(scan.jobType),
+                orEmpty(scan.salary), description, requirements, skillMatcher.scan(text).technicalNames());
+    }
+
+    @FunctionalInterface
+    private interface LineConsumer {
+        void accept(String line, String lower, int offset);
+    }
+
+    /**
+     * Splits on '\n' without regex or an intermediate array; {@code offset} is the line start in the text.
+     */
+    private static void forEachLine(String text, LineConsumer consumer) {
+        int start = 0;
+        int length = text.length();
+        while (start <= length) {
+            int end = text.indexOf('\n', start);
+            if (end == -1) end = length;
+            String line = text.substring(start, end);
+            consumer.accept(line, line.toLowerCase(), start);
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Section a heading line opens, or null for ordinary lines. Headings are short lines or "Keyword:" lines.
+     */
+    private static Section headingOf(String trimmedLower) {
+        String heading = BULLET.matcher(trimmedLower).replaceFirst("");
+        boolean labelled = heading.indexOf(':') > 0 && heading.indexOf(':') < 30;
+        if (heading.length() > 40 && !labelled) {
+            return null;
+        }
+        if (heading.startsWith("summary") || heading.startsWith("objective") || heading.startsWith("professional summary")
+                || heading.startsWith("career objective")) return Section.SUMMARY;
+        if (heading.startsWith("project")) return Section.PROJECTS;
+        if (heading.startsWith("experience") || heading.startsWith("work experience") || heading.startsWith("professional experience")
+                || heading.startsWith("employment")) return Section.EXPERIENCE;
+        if (heading.startsWith("education")) return Section.EDUCATION;
+        if (heading.startsWith("skills") || heading.startsWith("technical skills")) return Section.SKILLS;
+        if (heading.startsWith("certification") || heading.startsWith("achievements") || heading.startsWith("awards")
+                || heading.startsWith("interests") || heading.startsWith("languages")) return Section.OTHER;
+        return null;
+    }
+
+    /**
+     * Text after the heading keyword on the heading line itself ("Summary: Backend engineer ...").
+     */
+    private static String afterHeading(String trimmed) {
+        int colon = trimmed.indexOf(':');
+        return colon >= 0 ? trimmed.substring(colon + 1).trim() : "";
+    }
+
+    private static String orEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    /**
+     * Per-resume state filled line by line.
+     */
+    private static final class ResumeScan {
+        String years;
+        String github;
+        String linkedin;
+        String institution;
+        String location;
+        String name;
+        String bio;
+        String projectSentence;
+        boolean bachelorTech, bachelorScience, bachelorArts, bachelorOther;
+        boolean masterTech, masterScience, masterOther;
+        final boolean[] roles = new boolean[COMMON_ROLES.length];
+        final List<String> projects = new ArrayList<>();
+
+        private Section section = Section.NONE;
+        private boolean summaryDone;
+        private boolean projectsDone;
+        private final StringBuilder summary = new StringBuilder();
+        private final StringBuilder projectSection = new StringBuilder();
+
+        void accept(String line, String lower, int offset) {
+            String trimmed = line.trim();
+            String trimmedLower = lower.trim();
+
+            Section heading = headingOf(trimmedLower);
+            if (heading != null) {
+                closeSection();
+                section = heading;
+                String rest = afterHeading(trimmed);
+                if (!rest.isEmpty()) {
+                    appendToSection(rest);
+                }
+            } else if (trimmed.isEmpty()) {
+                // A blank line ends the summary / project block
+                closeSection();
+                section = Section.NONE;
+            } else {
+                appendToSection(trimmed);
+            }
+
+            if (name == null && trimmed.length() > 2 && trimmed.length() < 40
+                    && !lower.contains("resume") && !lower.contains("curriculum vitae")) {
+                name = trimmed;
+            }
+            if (years == null) {
+                Matcher m = YEARS.matcher(lower);
+                if (m.find()) years = m.group(1);
+            }
+            if (github == null) {
+                Matcher m = GITHUB.matcher(lower);
+                if (m.find()) github = m.group(1);
+            }
+            if (linkedin == null) {
+                Matcher m = LINKEDIN.matcher(lower);
+                if (m.find()) linkedin = m.group(1);
+            }
+            if (institution == null) {
+                Matcher m = INSTITUTION.matcher(line);
+                if (m.find() && m.group(1).trim().length() < 60) institution = m.group(1).trim();
+            }
+            if (location == null) {
+                Matcher m = LOCATION.matcher(line);
+                if (m.find()) location = m.group().trim();
+            }
+            if (projectSentence == null) {
+                Matcher m = PROJECT_VERB.matcher(line);
+                if (m.find()) projectSentence = m.group().trim();
+            }
+
+            bachelorTech |= lower.contains("b.tech") || lower.contains("bachelor of technology") || lower.contains("b.e.");
+            bachelorScience |= lower.contains("b.s.") || lower.contains("bachelor of science");
+            bachelorArts |= lower.contains("b.a.") || lower.contains("bachelor of arts");
+            bachelorOther |= lower.contains("bachelor") || lower.contains("degree");
+            masterTech |= lower.contains("m.tech") || lower.contains("master of technology");
+            masterScience |= lower.contains("m.s.") || lower.contains("master of science");
+            masterOther |= lower.contains("master");
+            for (int i = 0; i < COMMON_ROLES.length; i++) {
+                if (!roles[i] && lower.contains(COMMON_ROLES[i].toLowerCase())) roles[i] = true;
+            }
+        }
+
+        private void appendToSection(String text) {
+            if (section == Section.SUMMARY && !summaryDone) {
+                if (summary.length() > 0) summary.append('\n');
+                summary.append(text);
+            } else if (section == Section.PROJECTS && !projectsDone && projectSection.length() < MAX_PROJECT_SECTION) {
+                if (projectSection.length() > 0) projectSection.append('\n');
+                projectSection.append(text);
+            }
+        }
+
+        private void closeSection() {
+            if (section == Section.SUMMARY && summary.length() > 0) {
+                summaryDone = true;
+            } else if (section == Section.PROJECTS && projectSection.length() > 0) {
+                projectsDone = true;
+            }
+        }
+
+        void finish() {
+            closeSection();
+            String bioText = LEADING_PUNCTUATION.matcher(summary.toString().trim()).replaceFirst("").trim();
+            if (bioText.length() > 20) bio = bioText;
+
+            String projectText = projectSection.length() > MAX_PROJECT_SECTION
+                    ? projectSection.substring(0, MAX_PROJECT_SECTION) : projectSection.toString();
+            for (String pl : projectText.split("\n")) {
+                String clean = BULLET.matcher(pl).replaceFirst("").trim();
+                if (clean.length() > 15 && clean.length() < 120) {
+                    projects.add(clean);
+                }
+            }
+        }
+    }
+
+    /**
+     * Per-JD state filled line by line; heading positions are offsets into the full text.
+     */
+    private static final class JobDescriptionScan {
+        String title;
+        String company;
+        String location;
+        String jobType;
+        String salary;
+        int descriptionHeading = -1;
+        int requirementsHeading = -1;
+        int qualificationsHeading = -1;
+        int skillsHeading = -1;
+        int roleSummaryHeading = -1;
+
+        void accept(String line, String lower, int offset) {
+            String trimmed = line.trim();
+            if (title == null && !trimmed.isEmpty() && !lower.contains("company:") && !lower.contains("location:")) {
+                title = trimmed;
+            }
+            if (company == null) company = labelled(COMPANY, line);
+            if (location == null) location = labelled(JD_LOCATION, line);
+            if (jobType == null) jobType = labelled(JOB_TYPE, line);
+            if (salary == null) salary = labelled(SALARY, line);
+
+            descriptionHeading = firstOffset(descriptionHeading, lower, "job description", offset);
+            roleSummaryHeading = firstOffset(roleSummaryHeading, lower, "role summary", offset);
+            requirementsHeading = firstOffset(requirementsHeading, lower, "requirements", offset);
+            qualificationsHeading = firstOffset(qualificationsHeading, lower, "qualifications", offset);
+            skillsHeading = firstOffset(skillsHeading, lower, "skills", offset);
+        }
+
+        private static String labelled(Pattern pattern, String line) {
+            Matcher m = pattern.matcher(line);
+            return m.find() ? m.group(1).trim() : null;
+        }
+
+        private static int firstOffset(int current, String lower, String keyword, int offset) {
+            if (current != -1) return current;
+            int idx = lower.indexOf(keyword);
+            return idx == -1 ? -1 : offset + idx;
+        }
+    }
+}
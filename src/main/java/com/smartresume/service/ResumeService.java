@@ -1,8 +1,11 @@
 package com.smartresume.service;
 
+import com.smartresume.model.ExtractionResult;
 import com.smartresume.model.ResumeMeta;
 import com.smartresume.model.User;
 import com.smartresume.repository.ResumeRepository;
+import com.smartresume.util.DocumentFormat;
+import com.smartresume.util.Hashing;
 import lombok.RequiredArgsConstructor;
 import org.bson.types.ObjectId;
 import org.springframework.data.mongodb.gridfs.GridFsTemplate;
@@ -13,24 +16,36 @@ import org.springframework.data.mongodb.core.query.Criteria;
 import com.mongodb.client.gridfs.model.GridFSFile;
 import org.springframework.data.mongodb.gridfs.GridFsResource;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class ResumeService {
+    /**
+     * Bump whenever the extraction logic changes so cached texts from the old extractor are ignored.
+     */
+    public static final int EXTRACTOR_VERSION = 4;
+
+    static final String FALLBACK_TEXT = "Fallback extracted text for unsupported or corrupted dummy file format.";
+
     private final ResumeRepository resumeRepository;
     private final GridFsTemplate gridFsTemplate;
+    private final ContentStore contentStore;
+    private final ExtractionCache extractionCache;
+    private final OcrEngine ocrEngine;
+    private final PdfTextExtractor pdfTextExtractor;
 
     public ResumeMeta store(MultipartFile file, User owner) throws IOException {
         return store(file, owner, "RESUME");
     }
 
     public ResumeMeta store(MultipartFile file, User owner, String fileType) throws IOException {
-        ObjectId gridId;
+        ContentStore.StoredContent stored;
         try {
-            gridId = gridFsTemplate.store(file.getInputStream(), file.getOriginalFilename(), file.getContentType());
+            stored = contentStore.store(file::getInputStream, file.getOriginalFilename(), file.getContentType(), file.getSize());
         } catch (Exception e) {
             throw new RuntimeException("Failed to store file in GridFS", e);
         }
@@ -38,17 +53,18 @@ public class ResumeService {
         meta.setFilename(file.getOriginalFilename());
         meta.setContentType(file.getContentType());
         meta.setSize(file.getSize());
-        meta.setGridFsId(gridId.toHexString());
+        meta.setGridFsId(stored.gridFsId()); // Shared with every earlier upload of the same bytes
         meta.setOwnerId(owner.getId());
-        meta.setExtractedText(null); // Text will be extracted by ML service later if needed, saving huge memory
+        meta.setExtractedText(null); // Text lives in the extraction cache keyed by contentHash, saving huge memory
+        meta.setContentHash(stored.contentHash());
         meta.setFileType(fileType != null ? fileType : "RESUME");
         return resumeRepository.save(meta);
     }
 
     public ResumeMeta store(java.io.File file, String originalFilename, String contentType, User owner, String fileType) throws IOException {
-        ObjectId gridId;
-        try (InputStream inputStream = new java.io.FileInputStream(file)) {
-            gridId = gridFsTemplate.store(inputStream, originalFilename, contentType);
+        ContentStore.StoredContent stored;
+        try {
+            stored = contentStore.store(() -> new java.io.FileInputStream(file), originalFilename, contentType, file.length());
         } catch (Exception e) {
             throw new RuntimeException("Failed to store file in GridFS", e);
         }
@@ -56,9 +72,10 @@ public class ResumeService {
         meta.setFilename(originalFilename);
         meta.setContentType(contentType);
         meta.setSize(file.length());
-        meta.setGridFsId(gridId.toHexString());
+        meta.setGridFsId(stored.gridFsId());
         meta.setOwnerId(owner.getId());
         meta.setExtractedText(null);
+        meta.setContentHash(stored.contentHash());
         meta.setFileType(fileType != null ? fileType : "RESUME");
         return resumeRepository.save(meta);
     }
@@ -75,9 +92,33 @@ public class ResumeService {
     }
 
     /**
-     * Extract text from PDF resume for ML analysis
+     * Extract text from PDF resume for ML analysis.
+     * Results are cached by content hash, so each distinct file is only parsed once.
      */
     public String extractTextFromResume(String resumeId) throws IOException {
+        return extractResume(resumeId).getText();
+    }
+
+    /**
+     * Extract text with an explicit PDF strategy, e.g. page-parallel for long documents in batch screening.
+     */
+    public String extractTextFromResume(String resumeId, PdfTextExtractor.Strategy strategy) throws IOException {
+        return extractResume(resumeId, strategy).getText();
+    }
+
+    /**
+     * Same as {@link #extractTextFromResume(String)} but also reports page caps and deadline hits.
+     */
+    public ExtractionResult extractResume(String resumeId) throws IOException {
+        return extractResume(resumeId, null);
+    }
+
+    /**
+     * Both PDF strategies produce the same text, so they share one cache entry per content hash.
+     *
+     * @param strategy PDF extraction strategy, or null for the configured default
+     */
+    public ExtractionResult extractResume(String resumeId, PdfTextExtractor.Strategy strategy) throws IOException {
         // Get resume metadata
         Optional<ResumeMeta> resumeMetaOpt = resumeRepository.findById(resumeId);
         if (resumeMetaOpt.isEmpty()) {
@@ -86,94 +127,89 @@ public class ResumeService {
 
         ResumeMeta resumeMeta = resumeMetaOpt.get();
 
+        if (resumeMeta.getContentHash() != null) {
+            ExtractionResult cached = extractionCache.get(resumeMeta.getContentHash(), EXTRACTOR_VERSION);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
         // Get file from GridFS
         GridFsResource resource = getFileResourceByGridId(resumeMeta.getGridFsId());
         if (resource == null) {
             throw new RuntimeException("Resume file not found in GridFS");
         }
 
-        String contentType = resumeMeta.getContentType();
-        String filename = resumeMeta.getFilename() != null ? resumeMeta.getFilename().toLowerCase() : "";
-
-        try (InputStream inputStream = resource.getInputStream()) {
-            if (contentType != null && (contentType.equals("text/plain") || filename.endsWith(".txt"))) {
-                return new String(inputStream.readAllBytes(), java.nio.charset.StandardCharsets.UTF_8);
-            } else if (contentType != null && (contentType.startsWith("image/") || filename.endsWith(".png") || filename.endsWith(".jpg") || filename.endsWith(".jpeg"))) {
-                java.io.File tempFile = java.io.File.createTempFile("ocr_", filename);
-                try {
-                    java.nio.file.Files.copy(inputStream, tempFile.toPath(), java.nio.file.StandardCopyOption.REPLACE_EXISTING);
-                    
+        // Sniff the format from the leading bytes and read the rest in the same pass over the stream
+        byte[] content;
+        DocumentFormat format;
+        try (BufferedInputStream inputStream = new BufferedInputStream(resource.getInputStream())) {
+            format = DocumentFormat.detect(inputStream);
+            content = inputStream.readAllBytes();
+        }
+
+        if (resumeMeta.getContentHash() == null) {
+            // Uploaded before content hashing existed: backfill the hash once, another copy may already be cached
+            resumeMeta.setContentHash(Hashing.sha256Hex(content));
+            resumeRepository.save(resumeMeta);
+            ExtractionResult cached = extractionCache.get(resumeMeta.getContentHash(), EXTRACTOR_VERSION);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        ExtractionResult result = extractText(content, format, strategy);
+        if (result.isTimedOut() && result.getText().isBlank()) {
+            result.setText(FALLBACK_TEXT);
+        }
+        // Deadline hits depend on load, so only complete (or deterministically page-capped) results are cached
+        if (!FALLBACK_TEXT.equals(result.getText()) && !result.isTimedOut()) {
+            extractionCache.put(resumeMeta.getContentHash(), EXTRACTOR_VERSION, result);
+        }
+        return result;
+    }
+
+    /**
+     * Dispatches straight to the extractor for the sniffed format; the client-supplied content type
+     * and extension are not trusted, so a misnamed file is never parsed twice.
+     */
+    private ExtractionResult extractText(byte[] content, DocumentFormat format, PdfTextExtractor.Strategy strategy) {
+        try {
+            switch (format) {
+                case PDF:
+                    return pdfTextExtractor.extract(content, strategy);
+                case PNG:
+                case JPEG:
+                case GIF:
+                case BMP:
+                case TIFF:
                     try {
-                        // Optimize image for faster OCR: scale down large images and convert to grayscale
-                        java.awt.image.BufferedImage originalImage = javax.imageio.ImageIO.read(tempFile);
-                        if (originalImage == null) {
-                            throw new javax.imageio.IIOException("Unsupported image format");
-                        }
-                        if (originalImage.getWidth() > 800 || originalImage.getHeight() > 800) {
-                            int maxDim = 800;
-                            double scale = Math.min((double) maxDim / originalImage.getWidth(), (double) maxDim / originalImage.getHeight());
-                            int newWidth = (int) (originalImage.getWidth() * scale);
-                            int newHeight = (int) (originalImage.getHeight() * scale);
-                            
-                            java.awt.image.BufferedImage resizedImage = new java.awt.image.BufferedImage(newWidth, newHeight, java.awt.image.BufferedImage.TYPE_BYTE_GRAY);
-                            java.awt.Graphics2D g = resizedImage.createGraphics();
-                            g.drawImage(originalImage, 0, 0, newWidth, newHeight, null);
-                            g.dispose();
-                            
-                            javax.imageio.ImageIO.write(resizedImage, "jpg", tempFile);
-                        }
-
-                        net.sourceforge.tess4j.ITesseract tesseract = new net.sourceforge.tess4j.Tesseract();
-                        // On Ubuntu (Render), tessdata is usually here
-                        if (new java.io.File("/usr/share/tesseract-ocr/4.00/tessdata").exists()) {
-                            tesseract.setDatapath("/usr/share/tesseract-ocr/4.00/tessdata");
-                        } else if (new java.io.File("/usr/share/tesseract-ocr/5/tessdata").exists()) {
-                            tesseract.setDatapath("/usr/share/tesseract-ocr/5/tessdata");
-                        }
-                        tesseract.setLanguage("eng");
-                        // Use fast LSTM mode for much faster performance
-                        tesseract.setOcrEngineMode(1); 
-                        // Assume single column of text to skip complex layout analysis (massive speedup)
-                        tesseract.setPageSegMode(4);
-                        tesseract.setTessVariable("load_system_dawg", "F");
-                        tesseract.setTessVariable("load_freq_dawg", "F");
-                        return tesseract.doOCR(tempFile);
-                    } catch (Exception | Error e) {
-                        // Fallback: try parsing it as a PDF just in case it was a misidentified PDF file
-                        try (org.apache.pdfbox.pdmodel.PDDocument document = org.apache.pdfbox.pdmodel.PDDocument.load(tempFile)) {
-                            org.apache.pdfbox.text.PDFTextStripper stripper = new org.apache.pdfbox.text.PDFTextStripper();
-                            return stripper.getText(document);
-                        } catch (Exception pdfEx) {
-                            throw new IOException("The uploaded file could not be read as an image or a PDF. Please upload a standard PDF resume.", e);
-                        }
+                        return ExtractionResult.of(ocrEngine.recognize(content));
+                    } catch (Error e) {
+                        // Tesseract native failures surface as Errors; only those are turned into fallback text
+                        return ExtractionResult.of(FALLBACK_TEXT);
+                    }
+                case DOCX:
+                    try (org.apache.poi.xwpf.usermodel.XWPFDocument docx = new org.apache.poi.xwpf.usermodel.XWPFDocument(new ByteArrayInputStream(content));
+                         org.apache.poi.xwpf.extractor.XWPFWordExtractor extractor = new org.apache.poi.xwpf.extractor.XWPFWordExtractor(docx)) {
+                        return ExtractionResult.of(extractor.getText());
+                    }
+                case DOC:
+                    try (org.apache.poi.hwpf.HWPFDocument doc = new org.apache.poi.hwpf.HWPFDocument(new ByteArrayInputStream(content));
+                         org.apache.poi.hwpf.extractor.WordExtractor extractor = new org.apache.poi.hwpf.extractor.WordExtractor(doc)) {
+                        return ExtractionResult.of(extractor.getText());
                     }
-                } finally {
-                    tempFile.delete();
-                }
-            } else if (contentType != null && (contentType.equals("application/vnd.openxmlformats-officedocument.wordprocessingml.document") || filename.endsWith(".docx"))) {
-                try (org.apache.poi.xwpf.usermodel.XWPFDocument docx = new org.apache.poi.xwpf.usermodel.XWPFDocument(inputStream);
-                     org.apache.poi.xwpf.extractor.XWPFWordExtractor extractor = new org.apache.poi.xwpf.extractor.XWPFWordExtractor(docx)) {
-                    return extractor.getText();
-                }
-            } else if (contentType != null && (contentType.equals("application/msword") || filename.endsWith(".doc"))) {
-                try (org.apache.poi.hwpf.HWPFDocument doc = new org.apache.poi.hwpf.HWPFDocument(inputStream);
-                     org.apache.poi.hwpf.extractor.WordExtractor extractor = new org.apache.poi.hwpf.extractor.WordExtractor(doc)) {
-                    return extractor.getText();
-                }
-            } else if (filename.endsWith(".txt") || filename.endsWith(".md") || filename.endsWith(".csv") || (contentType != null && contentType.startsWith("text/"))) {
-                return new String(inputStream.readAllBytes(), java.nio.charset.StandardCharsets.UTF_8);
-            } else {
-                // Default to PDF
-                try (org.apache.pdfbox.pdmodel.PDDocument document = org.apache.pdfbox.pdmodel.PDDocument.load(inputStream)) {
-                    org.apache.pdfbox.text.PDFTextStripper stripper = new org.apache.pdfbox.text.PDFTextStripper();
-                    return stripper.getText(document);
-                } catch (Exception pdfEx) {
-                    // Fallback for corrupted PDFs or unknown dummy files that bypassed text/md checks
-                    return "Fallback extracted text for unsupported or corrupted dummy file format.";
-                }
+                case TEXT:
+                    return ExtractionResult.of(new String(content, java.nio.charset.StandardCharsets.UTF_8));
+                default:
+                    // Unknown or corrupted dummy files
+                    return ExtractionResult.of(FALLBACK_TEXT);
             }
+        } catch (OcrEngine.OcrCapacityExceededException e) {
+            // Load shedding must reach the caller instead of turning into fallback text
+            throw e;
         } catch (Exception e) {
-            return "Fallback extracted text for unsupported or corrupted dummy file format.";
+            return ExtractionResult.of(FALLBACK_TEXT);
         }
     }
 }
@@ -0,0 +1,257 @@
+package com.smartresume.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartresume.util.AhoCorasick;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds skill mentions in resumes and JDs in a single pass.
+ * The skill vocabulary is the ML service's skills_database.json (bundled on the classpath) plus aliases
+ * and the keywords of the old hard-coded list, compiled once into an immutable Aho-Corasick automaton.
+ * Every variant maps to a canonical skill id, e.g. "k8s", "kube" and "kubernetes tools" all report "kubernetes".
+ */
+@Component
+@Slf4j
+public class SkillMatcher {
+
+    private static final String DATABASE = "skills_database.json";
+
+    /** Generated variants in the database ("react development", "react tools", ...) collapse onto the base skill. */
+    private static final String[] VARIANT_SUFFIXES = {" development", " engineering", " framework", " tools"};
+
+    /** Skills the database lacks but the previous keyword list matched. */
+    private static final List<String> EXTRA_TECHNICAL_SKILLS = List.of("git", "linux", "graphql", "rest api", "artificial intelligence");
+
+    /**
+     * Alternative spellings and shorthands. "ci", "cd" and "net" from the ML service's alias list are left
+     * out on purpose: as standalone words they are far more often not skills.
+     */
+    private static final Map<String, String> ALIASES = Map.ofEntries(
+            Map.entry("js", "javascript"), Map.entry("ts", "typescript"),
+            Map.entry("k8s", "kubernetes"), Map.entry("kube", "kubernetes"),
+            Map.entry("postgres", "postgresql"), Map.entry("mongo", "mongodb"),
+            Map.entry("golang", "go"), Map.entry("node", "node.js"), Map.entry("nodejs", "node.js"),
+            Map.entry("express", "express.js"), Map.entry("reactjs", "react"), Map.entry("react.js", "react"),
+            Map.entry("vuejs", "vue"), Map.entry("vue.js", "vue"), Map.entry("sklearn", "scikit-learn"),
+            Map.entry("amazon web services", "aws"), Map.entry("google cloud", "gcp"), Map.entry("microsoft azure", "azure"),
+            Map.entry("ml", "machine learning"), Map.entry("dl", "deep learning"),
+            Map.entry("nlp", "natural language processing"),
+            Map.entry("ai", "artificial intelligence"), Map.entry("artifical intelligence", "artificial intelligence"),
+            Map.entry("restful api", "rest api"), Map.entry("restful apis", "rest api"), Map.entry("rest apis", "rest api"));
+
+    private static final Set<String> UPPERCASE_NAMES = Set.of(
+            "aws", "sql", "gcp", "ci/cd", "c++", "c#", "c", "r", "html", "html5", "css", "css3",
+            "php", "jwt", "jpa", "etl", "elt", "ssl", "tls");
+
+    private static final Map<String, String> DISPLAY_NAMES = Map.ofEntries(
+            Map.entry("javascript", "JavaScript"), Map.entry("typescript", "TypeScript"),
+            Map.entry("mongodb", "MongoDB"), Map.entry("mysql", "MySQL"), Map.entry("postgresql", "PostgreSQL"),
+            Map.entry("nosql", "NoSQL"), Map.entry("sqlite", "SQLite"), Map.entry("mariadb", "MariaDB"),
+            Map.entry("dynamodb", "DynamoDB"), Map.entry("cockroachdb", "CockroachDB"), Map.entry("graphql", "GraphQL"),
+            Map.entry("rest api", "REST API"), Map.entry("github actions", "GitHub Actions"), Map.entry("gitlab ci", "GitLab CI"),
+            Map.entry("fastapi", "FastAPI"), Map.entry("nestjs", "NestJS"), Map.entry("circleci", "CircleCI"),
+            Map.entry("ui design", "UI Design"), Map.entry("ux design", "UX Design"), Map.entry("testng", "TestNG"));
+
+    private final AhoCorasick automaton;
+    private final String[] skillOfPattern;
+    private final Set<String> softSkills;
+    private final Map<String, String> displayNames = new LinkedHashMap<>();
+
+    public SkillMatcher() {
+        Set<String> technical = new LinkedHashSet<>();
+        Set<String> soft = new LinkedHashSet<>();
+        try (InputStream in = new ClassPathResource(DATABASE).getInputStream()) {
+            JsonNode root = new ObjectMapper().readTree(in);
+            root.path("technical_skills").forEach(n -> technical.add(n.asText().toLowerCase().trim()));
+            root.path("soft_skills").forEach(n -> soft.add(n.asText().toLowerCase().trim()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load " + DATABASE, e);
+        }
+        technical.addAll(EXTRA_TECHNICAL_SKILLS);
+
+        // spelling (as it appears in text) -> canonical skill id
+        Map<String, String> spellings = new LinkedHashMap<>();
+        for (String skill : technical) {
+            String base = stripVariantSuffix(skill);
+            spellings.put(base, ALIASES.getOrDefault(base, base));
+        }
+        for (String skill : soft) {
+            spellings.put(skill, skill);
+        }
+        ALIASES.forEach(spellings::put);
+        this.softSkills = Collections.unmodifiableSet(soft);
+
+        AhoCorasick.Builder builder = AhoCorasick.builder();
+        List<String> skillIds = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (Map.Entry<String, String> entry : spellings.entrySet()) {
+            String pattern = normalize(entry.getKey());
+            // The old keyword list also matched multi-word skills written without spaces ("machinelearning")
+            for (String variant : List.of(pattern, pattern.replace(" ", ""))) {
+                if (!variant.isEmpty() && seen.add(variant)) {
+                    builder.add(variant);
+                    skillIds.add(entry.getValue());
+                }
+            }
+            displayNames.computeIfAbsent(entry.getValue(), SkillMatcher::toDisplayName);
+        }
+        this.automaton = builder.build();
+        this.skillOfPattern = skillIds.toArray(new String[0]);
+        log.info("Skill matcher ready: {} skills, {} spellings", displayNames.size(), automaton.patternCount());
+    }
+
+    /**
+     * Skill mentions found in one text: canonical ids in order of first mention, with mention counts.
+     */
+    public static final class Mentions {
+        private final Map<String, Integer> counts;
+        private final SkillMatcher matcher;
+
+        private Mentions(Map<String, Integer> counts, SkillMatcher matcher) {
+            this.counts = Collections.unmodifiableMap(counts);
+            this.matcher = matcher;
+        }
+
+        public Set<String> skillIds() {
+            return counts.keySet();
+        }
+
+        public int count(String skillId) {
+            return counts.getOrDefault(skillId, 0);
+        }
+
+        public List<String> technicalNames() {
+            List<String> names = new ArrayList<>();
+            counts.keySet().stream().filter(id -> !matcher.isSoftSkill(id)).forEach(id -> names.add(matcher.displayName(id)));
+            return names;
+        }
+
+        public List<String> softNames() {
+            List<String> names = new ArrayList<>();
+            counts.keySet().stream().filter(matcher::isSoftSkill).forEach(id -> names.add(matcher.displayName(id)));
+            return names;
+        }
+    }
+
+    /**
+     * Finds every skill mention in the text in one pass of the automaton. Matches must sit on word
+     * boundaries, so "go" is not found in "google" and "c" is not found in "c++".
+     */
+    public Mentions scan(String text) {
+        if (text == null || text.isEmpty()) {
+            return new Mentions(new LinkedHashMap<>(), this);
+        }
+        char[] buffer = new char[text.length()];
+        int length = normalizeInto(text, buffer);
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        automaton.scan(buffer, length, (patternId, start, end) -> {
+            if (isBoundary(buffer, length, start, end)) {
+                counts.merge(skillOfPattern[patternId], 1, Integer::sum);
+            }
+        });
+        return new Mentions(counts, this);
+    }
+
+    public boolean isSoftSkill(String skillId) {
+        return softSkills.contains(skillId);
+    }
+
+    public String displayName(String skillId) {
+        return displayNames.getOrDefault(skillId, skillId);
+    }
+
+    private static boolean isBoundary(char[] text, int length, int start, int end) {
+        boolean singleChar = end - start == 1;
+        if (start > 0) {
+            char previous = text[start - 1];
+            // "js" inside "node.js"
+            if (previous == '.' || !isSeparator(previous, singleChar)) {
+                return false;
+            }
+        }
+        if (end < length) {
+            char next = text[end];
+            // "c" inside "c++" / "c#", or "spring" inside "spring's" etc.
+            if (next == '+' || next == '#' || !isSeparator(next, singleChar)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSeparator(char c, boolean strict) {
+        if (strict) {
+            // One-letter skills (C, R) only count as list items, not in "R&D" or "c."
+            return c == ' ' || c == ',' || c == '/' || c == '(' || c == ')' || c == ';' || c == '|';
+        }
+        return !Character.isLetterOrDigit(c);
+    }
+
+    /**
+     * Lower-cases, treats hyphens as spaces (like the ML tokenizer) and collapses whitespace runs.
+     */
+    private static int normalizeInto(String text, char[] buffer) {
+        int length = 0;
+        boolean lastSpace = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '-' || Character.isWhitespace(c) || c == '\u00A0') {
+                if (!lastSpace) {
+                    buffer[length++] = ' ';
+                    lastSpace = true;
+                }
+                continue;
+            }
+            buffer[length++] = Character.toLowerCase(c);
+            lastSpace = false;
+        }
+        return length;
+    }
+
+    private static String normalize(String spelling) {
+        char[] buffer = new char[spelling.length()];
+        int length = normalizeInto(spelling, buffer);
+        return new String(buffer, 0, length).trim();
+    }
+
+    private static String stripVariantSuffix(String skill) {
+        for (String suffix : VARIANT_SUFFIXES) {
+            if (skill.endsWith(suffix)) {
+                return skill.substring(0, skill.length() - suffix.length());
+            }
+        }
+        return skill;
+    }
+
+    private static String toDisplayName(String skillId) {
+        if (UPPERCASE_NAMES.contains(skillId)) {
+            return skillId.toUpperCase();
+        }
+        String special = DISPLAY_NAMES.get(skillId);
+        if (special != null) {
+            return special;
+        }
+        StringBuilder name = new StringBuilder(skillId.length());
+        boolean startOfWord = true;
+        for (char c : skillId.toCharArray()) {
+            name.append(startOfWord ? Character.toUpperCase(c) : c);
+            startOfWord = c == ' ';
+        }
+        return name.toString();
+    }
+}
@@ -0,0 +1,166 @@
+package com.smartresume.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable Aho-Corasick automaton compiled into a dense DFA over the characters that occur in the
+ * patterns, so a scan is one table lookup per input character regardless of the number of patterns.
+ * Characters that appear in no pattern share a single "other" symbol that always leads back to the root.
+ */
+public final class AhoCorasick {
+
+    /**
+     * Receives every pattern occurrence; {@code end} is exclusive.
+     */
+    @FunctionalInterface
+    public interface MatchListener {
+        void onMatch(int patternId, int start, int end);
+    }
+
+    private static final int OTHER = 0;
+
+    private final int[] symbolOf;    // ASCII char -> symbol, OTHER for everything else
+    private final int alphabetSize;
+    private final int[] delta;       // state * alphabetSize + symbol -> next state
+    private final int[][] outputs;   // state -> pattern ids ending here, including via failure links
+    private final int[] patternLengths;
+
+    private AhoCorasick(int[] symbolOf, int alphabetSize, int[] delta, int[][] outputs, int[] patternLengths) {
+        this.symbolOf = symbolOf;
+        this.alphabetSize = alphabetSize;
+        this.delta = delta;
+        this.outputs = outputs;
+        this.patternLengths = patternLengths;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int patternCount() {
+        return patternLengths.length;
+    }
+
+    /**
+     * Reports every occurrence of every pattern in {@code text[0, length)} in a single pass.
+     */
+    public void scan(char[] text, int length, MatchListener listener) {
+        int state = 0;
+        for (int i = 0; i < length; i++) {
+            char c = text[i];
+            int symbol = c < 128 ? symbolOf[c] : OTHER;
+            state = delta[state * alphabetSize + symbol];
+            int[] found = outputs[state];
+            for (int patternId : found) {
+                listener.onMatch(patternId, i + 1 - patternLengths[patternId], i + 1);
+            }
+        }
+    }
+
+    public static final class Builder {
+        private final List<String> patterns = new ArrayList<>();
+
+        /**
+         * Adds a pattern and returns its id; patterns must be non-empty ASCII and are matched case-sensitively.
+         */
+        public int add(String pattern) {
+            if (pattern.isEmpty()) {
+                throw new IllegalArgumentException("Empty pattern");
+            }
+            for (int i = 0; i < pattern.length(); i++) {
+                if (pattern.charAt(i) >= 128) {
+                    throw new IllegalArgumentException("Non-ASCII pattern: " + pattern);
+                }
+            }
+            patterns.add(pattern);
+            return patterns.size() - 1;
+        }
+
+        public AhoCorasick build() {
+            int[] symbolOf = new int[128];
+            int alphabetSize = 1;
+            for (String pattern : patterns) {
+                for (int i = 0; i < pattern.length(); i++) {
+                    char c = pattern.charAt(i);
+                    if (symbolOf[c] == OTHER) {
+                        symbolOf[c] = alphabetSize++;
+                    }
+                }
+            }
+
+            // Trie
+            List<Map<Integer, Integer>> children = new ArrayList<>();
+            List<List<Integer>> own = new ArrayList<>();
+            children.add(new HashMap<>());
+            own.add(new ArrayList<>());
+            int[] patternLengths = new int[patterns.size()];
+            for (int id = 0; id < patterns.size(); id++) {
+                String pattern = patterns.get(id);
+                patternLengths[id] = pattern.length();
+                int state = 0;
+                for (int i = 0; i < pattern.length(); i++) {
+                    int symbol = symbolOf[pattern.charAt(i)];
+                    Integer next = children.get(state).get(symbol);
+                    if (next == null) {
+                        next = children.size();
+                        children.add(new HashMap<>());
+                        own.add(new ArrayList<>());
+                        children.get(state).put(symbol, next);
+                    }
+                    state = next;
+                }
+                own.get(state).add(id);
+            }
+
+            // Breadth-first failure links, folded straight into the DFA transition table
+            int states = children.size();
+            int[] delta = new int[states * alphabetSize];
+            int[] fail = new int[states];
+            int[][] outputs = new int[states][];
+            outputs[0] = toArray(own.get(0));
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            for (int symbol = 0; symbol < alphabetSize; symbol++) {
+                Integer child = children.get(0).get(symbol);
+                if (child != null) {
+                    delta[symbol] = child;
+                    fail[child] = 0;
+                    outputs[child] = toArray(own.get(child));
+                    queue.add(child);
+                }
+            }
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                for (int symbol = 0; symbol < alphabetSize; symbol++) {
+                    Integer child = children.get(state).get(symbol);
+                    if (child == null) {
+                        delta[state * alphabetSize + symbol] = delta[fail[state] * alphabetSize + symbol];
+                        continue;
+                    }
+                    delta[state * alphabetSize + symbol] = child;
+                    fail[child] = delta[fail[state] * alphabetSize + symbol];
+                    outputs[child] = concat(toArray(own.get(child)), outputs[fail[child]]);
+                    queue.add(child);
+                }
+            }
+            return new AhoCorasick(symbolOf, alphabetSize, delta, outputs, patternLengths);
+        }
+
+        private static int[] toArray(List<Integer> ids) {
+            return ids.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        private static int[] concat(int[] a, int[] b) {
+            if (b.length == 0) {
+                return a;
+            }
+            int[] result = Arrays.copyOf(a, a.length + b.length);
+            System.arraycopy(b, 0, result, a.length, b.length);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.smartresume.util;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+
+/**
+ * File format detected from the leading bytes of an upload instead of the client-supplied
+ * content type or filename extension.
+ */
+public enum DocumentFormat {
+    PDF,
+    PNG,
+    JPEG,
+    GIF,
+    BMP,
+    TIFF,
+    /** ZIP container; for resumes this is an OOXML (.docx) document. */
+    DOCX,
+    /** OLE2 compound file; for resumes this is a legacy Word (.doc) document. */
+    DOC,
+    TEXT,
+    UNKNOWN;
+
+    /** Bytes inspected; PDF readers accept a "%PDF-" header anywhere in the first kilobyte. */
+    public static final int SNIFF_LENGTH = 1024;
+
+    private static final byte[] PDF_MAGIC = {'%', 'P', 'D', 'F', '-'};
+    private static final byte[] PNG_MAGIC = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] JPEG_MAGIC = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+    private static final byte[] GIF_MAGIC = {'G', 'I', 'F', '8'};
+    private static final byte[] BMP_MAGIC = {'B', 'M'};
+    private static final byte[] TIFF_LE_MAGIC = {'I', 'I', 42, 0};
+    private static final byte[] TIFF_BE_MAGIC = {'M', 'M', 0, 42};
+    private static final byte[] ZIP_MAGIC = {'P', 'K', 3, 4};
+    private static final byte[] OLE2_MAGIC = {(byte) 0xD0, (byte) 0xCF, 0x11, (byte) 0xE0, (byte) 0xA1, (byte) 0xB1, 0x1A, (byte) 0xE1};
+
+    public boolean isImage() {
+        return this == PNG || this == JPEG || this == GIF || this == BMP || this == TIFF;
+    }
+
+    /**
+     * Detects the format from the start of the stream without consuming it: the stream is marked,
+     * the header read and the stream reset, so the caller can go on reading it in the same pass.
+     */
+    public static DocumentFormat detect(BufferedInputStream inputStream) throws IOException {
+        inputStream.mark(SNIFF_LENGTH);
+        byte[] header = inputStream.readNBytes(SNIFF_LENGTH);
+        inputStream.reset();
+        return detect(header, header.length);
+    }
+
+    public static DocumentFormat detect(byte[] content) {
+        return detect(content, Math.min(content.length, SNIFF_LENGTH));
+    }
+
+    private static DocumentFormat detect(byte[] header, int length) {
+        if (startsWith(header, length, PDF_MAGIC)) return PDF;
+        if (startsWith(header, length, PNG_MAGIC)) return PNG;
+        if (startsWith(header, length, JPEG_MAGIC)) return JPEG;
+        if (startsWith(header, length, ZIP_MAGIC)) return DOCX;
+        if (startsWith(header, length, OLE2_MAGIC)) return DOC;
+        if (startsWith(header, length, GIF_MAGIC)) return GIF;
+        if (startsWith(header, length, TIFF_LE_MAGIC) || startsWith(header, length, TIFF_BE_MAGIC)) return TIFF;
+        if (indexOf(header, length, PDF_MAGIC) >= 0) return PDF;
+        if (isText(header, length)) return TEXT;
+        // "BM" is also a plausible start of plain text, so bitmaps are only recognised after the text check
+        if (startsWith(header, length, BMP_MAGIC)) return BMP;
+        return UNKNOWN;
+    }
+
+    private static boolean startsWith(byte[] header, int length, byte[] magic) {
+        if (length < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (header[i] != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(byte[] header, int length, byte[] magic) {
+        outer:
+        for (int i = 0; i <= length - magic.length; i++) {
+            for (int j = 0; j < magic.length; j++) {
+                if (header[i + j] != magic[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Well-formed UTF-8 without binary control characters. A multi-byte sequence cut off by the end
+     * of the sample is accepted.
+     */
+    private static boolean isText(byte[] header, int length) {
+        if (length == 0) {
+            return false;
+        }
+        int i = 0;
+        while (i < length) {
+            int b = header[i] & 0xFF;
+            int continuation;
+            if (b < 0x80) {
+                if (b < 0x20 && b != '\t' && b != '\n' && b != '\r' && b != '\f') {
+                    return false;
+                }
+                i++;
+                continue;
+            } else if (b >= 0xC2 && b <= 0xDF) {
+                continuation = 1;
+            } else if (b >= 0xE0 && b <= 0xEF) {
+                continuation = 2;
+            } else if (b >= 0xF0 && b <= 0xF4) {
+                continuation = 3;
+            } else {
+                return false;
+            }
+            for (int j = 1; j <= continuation; j++) {
+                if (i + j >= length) {
+                    return true;
+                }
+                if ((header[i + j] & 0xC0) != 0x80) {
+                    return false;
+                }
+            }
+            i += continuation + 1;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,36 @@
+package com.smartresume.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 helpers used to fingerprint uploaded files and texts.
+ */
+public final class Hashing {
+
+    private Hashing() {
+    }
+
+    public static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE is required to ship SHA-256
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public static String toHex(byte[] digest) {
+        return HexFormat.of().formatHex(digest);
+    }
+
+    public static String sha256Hex(byte[] bytes) {
+        return toHex(newSha256().digest(bytes));
+    }
+
+    public static String sha256Hex(String text) {
+        return sha256Hex(text != null ? text.getBytes(StandardCharsets.UTF_8) : new byte[0]);
+    }
+}
@@ -0,0 +1,84 @@
+package com.smartresume.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Coalesces concurrent calls with the same key: the first caller runs the call on its own thread,
+ * everyone arriving while it is in flight waits for and shares its result (or its exception).
+ * Nothing is remembered once the call completes, so this never serves stale results.
+ * Mutable results are handed out through a copy function, so no two callers share an instance.
+ */
+public final class SingleFlight {
+
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder shared = new LongAdder();
+
+    /**
+     * For results nobody modifies: every caller gets the same instance.
+     */
+    public <T> T execute(String key, Supplier<T> call) {
+        return execute(key, call, UnaryOperator.identity());
+    }
+
+    /**
+     * Every caller, the one that ran the call included, gets its own copy of the result, so the
+     * shared instance is never modified while a waiter is still copying it. copy is not called for null.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> call, UnaryOperator<T> copy) {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            shared.increment();
+            return copyOf((T) await(existing), copy);
+        }
+        try {
+            T result = call.get();
+            mine.complete(result);
+            return copyOf(result, copy);
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Calls that were answered by another caller's in-flight request.
+     */
+    public long sharedCount() {
+        return shared.sum();
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private static <T> T copyOf(T result, UnaryOperator<T> copy) {
+        return result != null ? copy.apply(result) : null;
+    }
+
+    private static Object await(CompletableFuture<Object> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an in-flight request", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.smartresume.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The k highest-scoring items seen so far. Kept as a binary min-heap over primitive scores, so an
+ * item that cannot make the list costs one comparison with the current k-th score, and an accepted one
+ * O(log k). On equal scores the item seen first stays. Not thread-safe.
+ */
+public final class TopK<T> {
+
+    private final int capacity;
+    private final double[] scores;
+    private final long[] order;
+    private final Object[] items;
+    private int size;
+    private long offered;
+
+    public TopK(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        this.scores = new double[capacity];
+        this.order = new long[capacity];
+        this.items = new Object[capacity];
+    }
+
+    /**
+     * @return true when the item is now in the top k
+     */
+    public boolean offer(double score, T item) {
+        long seq = offered++;
+        if (size < capacity) {
+            scores[size] = score;
+            order[size] = seq;
+            items[size] = item;
+            siftUp(size++);
+            return true;
+        }
+        if (score <= scores[0]) {
+            return false;
+        }
+        scores[0] = score;
+        order[0] = seq;
+        items[0] = item;
+        siftDown(0);
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The lowest score still in the top k, or negative infinity while fewer than k items were offered.
+     */
+    public double threshold() {
+        return size < capacity ? Double.NEGATIVE_INFINITY : scores[0];
+    }
+
+    /**
+     * The first n items, best first. Leaves the heap unchanged.
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> top(int n) {
+        TopK<T> copy = new TopK<>(capacity);
+        System.arraycopy(scores, 0, copy.scores, 0, size);
+        System.arraycopy(order, 0, copy.order, 0, size);
+        System.arraycopy(items, 0, copy.items, 0, size);
+        copy.size = size;
+
+        Object[] sorted = new Object[size];
+        for (int i = size - 1; i >= 0; i--) {
+            sorted[i] = copy.items[0];
+            copy.size--;
+            copy.swap(0, copy.size);
+            copy.siftDown(0);
+        }
+        List<T> result = new ArrayList<>(Math.min(n, size));
+        for (int i = 0; i < size && i < n; i++) {
+            result.add((T) sorted[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Heap order: a lower score is smaller, and on equal scores the later-offered item is smaller
+     * (so it is evicted first).
+     */
+    private boolean less(int a, int b) {
+        if (scores[a] != scores[b]) {
+            return scores[a] < scores[b];
+        }
+        return order[a] > order[b];
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!less(i, parent)) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                return;
+            }
+            int smallest = left + 1 < size && less(left + 1, left) ? left + 1 : left;
+            if (!less(smallest, i)) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        double score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+        long seq = order[a];
+        order[a] = order[b];
+        order[b] = seq;
+        Object item = items[a];
+        items[a] = items[b];
+        items[b] = item;
+    }
+}
@@ -0,0 +1,114 @@
+package com.smartresume.controller;
+
+import com.mongodb.client.gridfs.model.GridFSFile;
+import com.smartresume.model.ResumeMeta;
+import com.smartresume.repository.ResumeRepository;
+import com.smartresume.repository.UserRepository;
+import com.smartresume.service.ResumeParsePipeline;
+import com.smartresume.service.ResumeService;
+import org.bson.BsonObjectId;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.gridfs.GridFsResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Optional;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ResumeControllerTest {
+
+    private static final byte[] FILE = "%PDF-1.4 resume body".getBytes(StandardCharsets.US_ASCII);
+    private static final String ETAG = "\"abc123\"";
+
+    private final ResumeService resumeService = mock(ResumeService.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        String gridId = new ObjectId().toHexString();
+        ResumeMeta meta = new ResumeMeta();
+        meta.setId("r1");
+        meta.setFilename("resume.pdf");
+        meta.setContentType("application/pdf");
+        meta.setGridFsId(gridId);
+        meta.setContentHash("abc123");
+        when(resumeService.findById("r1")).thenReturn(Optional.of(meta));
+        // A fresh resource per call: each request opens its own download stream
+        when(resumeService.getFileResourceByGridId(gridId)).thenAnswer(invocation -> new GridFsResource(
+                new GridFSFile(new BsonObjectId(new ObjectId(gridId)), "resume.pdf", FILE.length, 255 * 1024,
+                        new Date(1_700_000_000_000L), new Document()),
+                new ByteArrayInputStream(FILE)));
+
+        mockMvc = MockMvcBuilders.standaloneSetup(new ResumeController(resumeService, mock(UserRepository.class),
+                mock(ResumeParsePipeline.class), mock(ResumeRepository.class))).build();
+    }
+
+    @Test
+    void servesTheWholeFile() throws Exception {
+        mockMvc.perform(get("/api/resumes/r1/download"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, FILE.length))
+                .andExpect(content().bytes(FILE));
+    }
+
+    @Test
+    void servesASingleRange() throws Exception {
+        mockMvc.perform(get("/api/resumes/r1/download").header(HttpHeaders.RANGE, "bytes=1-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 1-3/" + FILE.length))
+                .andExpect(content().bytes(new byte[]{FILE[1], FILE[2], FILE[3]}));
+    }
+
+    @Test
+    void staleIfRangeGetsTheWholeFile() throws Exception {
+        mockMvc.perform(get("/api/resumes/r1/download")
+                        .header(HttpHeaders.RANGE, "bytes=0-1")
+                        .header(HttpHeaders.IF_RANGE, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+                .andExpect(content().bytes(FILE));
+    }
+
+    @Test
+    void multiRangeGetsTheWholeFile() throws Exception {
+        mockMvc.perform(get("/api/resumes/r1/download").header(HttpHeaders.RANGE, "bytes=0-1,5-6"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+                .andExpect(content().bytes(FILE));
+    }
+
+    @Test
+    void malformedRangeGetsTheWholeFile() throws Exception {
+        mockMvc.perform(get("/api/resumes/r1/download").header(HttpHeaders.RANGE, "bytes=oops"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+                .andExpect(content().bytes(FILE));
+    }
+
+    @Test
+    void unsatisfiableRangeGets416() throws Exception {
+        mockMvc.perform(get("/api/resumes/r1/download").header(HttpHeaders.RANGE, "bytes=500-600"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + FILE.length));
+    }
+
+    @Test
+    void matchingEtagGets304() throws Exception {
+        mockMvc.perform(get("/api/resumes/r1/download").header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(status().isNotModified());
+    }
+}
@@ -0,0 +1,127 @@
+package com.smartresume.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MLCircuitBreakerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(2);
+
+    /** slow-call-ms is 1000, so SLOW calls count as slow and FAST ones do not */
+    private static MLCircuitBreaker breaker(int windowSize, int minCalls, double failureRate, double slowRate,
+                                            long openMs, int halfOpenCalls) {
+        return new MLCircuitBreaker(new SimpleMeterRegistry(), windowSize, minCalls, failureRate, slowRate,
+                1000, openMs, halfOpenCalls);
+    }
+
+    @Test
+    void staysClosedUntilMinCallsAreRecorded() {
+        MLCircuitBreaker breaker = breaker(10, 4, 50, 100, 30000, 1);
+        for (int i = 0; i < 3; i++) {
+            breaker.record(true, FAST);
+        }
+        assertEquals(MLCircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.record(true, FAST);
+        assertEquals(MLCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void failureRateOnlyCountsTheSlidingWindow() {
+        MLCircuitBreaker breaker = breaker(4, 4, 75, 100, 30000, 1);
+        // F F ok ok ok F F: the last four are ok ok F F, 50%
+        boolean[] outcomes = {true, true, false, false, false, true, true};
+        for (boolean failure : outcomes) {
+            breaker.record(failure, FAST);
+        }
+        assertEquals(MLCircuitBreaker.State.CLOSED, breaker.getState());
+
+        // Last four are now ok F F F, 75%; over all eight calls it would be 62.5%
+        breaker.record(true, FAST);
+        assertEquals(MLCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void slowCallsOpenTheCircuitWithoutFailures() {
+        MLCircuitBreaker breaker = breaker(5, 5, 50, 80, 30000, 1);
+        breaker.record(false, FAST);
+        for (int i = 0; i < 3; i++) {
+            breaker.record(false, SLOW);
+        }
+        assertEquals(MLCircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.record(false, SLOW);
+        assertEquals(MLCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void openCircuitFailsFast() {
+        MLCircuitBreaker breaker = breaker(2, 2, 50, 100, 30000, 1);
+        breaker.record(true, FAST);
+        breaker.record(true, FAST);
+
+        assertThrows(IOException.class, breaker::rejectIfOpen);
+        assertThrows(IOException.class, breaker::acquirePermission);
+        assertFalse(breaker.isProbeDue());
+    }
+
+    @Test
+    void healthyProbeAllowsTrialCallsThatCloseTheCircuit() throws IOException {
+        MLCircuitBreaker breaker = breaker(2, 2, 50, 100, 0, 2);
+        breaker.record(true, FAST);
+        breaker.record(true, FAST);
+        assertTrue(breaker.isProbeDue());
+
+        breaker.onProbe(false);
+        assertEquals(MLCircuitBreaker.State.OPEN, breaker.getState());
+
+        breaker.onProbe(true);
+        assertEquals(MLCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertDoesNotThrow(breaker::rejectIfOpen);
+        breaker.acquirePermission();
+        breaker.acquirePermission();
+        // Only half-open-calls trial permits are handed out
+        assertThrows(IOException.class, breaker::acquirePermission);
+
+        breaker.record(false, FAST);
+        assertEquals(MLCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.record(false, FAST);
+        assertEquals(MLCircuitBreaker.State.CLOSED, breaker.getState());
+        assertDoesNotThrow(breaker::acquirePermission);
+    }
+
+    @Test
+    void failedTrialCallReopensTheCircuit() {
+        MLCircuitBreaker breaker = breaker(2, 2, 50, 100, 0, 3);
+        breaker.record(true, FAST);
+        breaker.record(true, FAST);
+        breaker.onProbe(true);
+
+        breaker.record(true, FAST);
+        assertEquals(MLCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void closingClearsTheWindow() {
+        MLCircuitBreaker breaker = breaker(4, 2, 50, 100, 0, 1);
+        breaker.record(true, FAST);
+        breaker.record(true, FAST);
+        breaker.onProbe(true);
+        breaker.record(false, FAST);
+        assertEquals(MLCircuitBreaker.State.CLOSED, breaker.getState());
+
+        // Had the earlier failures been kept, this would be 3 of 3 failed
+        breaker.record(true, FAST);
+        assertEquals(MLCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+}
@@ -0,0 +1,214 @@
+package com.smartresume.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MLTrafficGovernorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdown() {
+        callers.shutdownNow();
+    }
+
+    /**
+     * A governor whose token bucket never gets in the way, with the default lanes: INTERACTIVE reserves
+     * 25% and RECRUITER 10% of the limit.
+     */
+    private MLTrafficGovernor governor(double initialLimit, double minLimit, double maxLimit, long slowCallMs,
+                                       long maxWaitMs, int maxRetries) {
+        MLCircuitBreaker breaker = new MLCircuitBreaker(registry, 20, 5, 50, 80, 75000, 30000, 3);
+        return governor(breaker, initialLimit, minLimit, maxLimit, slowCallMs, maxWaitMs, maxRetries);
+    }
+
+    private MLTrafficGovernor governor(MLCircuitBreaker breaker, double initialLimit, double minLimit, double maxLimit,
+                                       long slowCallMs, long maxWaitMs, int maxRetries) {
+        return new MLTrafficGovernor(registry, breaker, 1000, 1000, initialLimit, minLimit, maxLimit, slowCallMs,
+                0, maxWaitMs, maxRetries, new double[]{8, 4, 2, 1}, new double[]{0.25, 0.1, 0, 0});
+    }
+
+    private static MockClientHttpRequest post(MLLane lane) {
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.POST, URI.create("http://ml/api/ml/match"));
+        request.getHeaders().set(MLLane.HEADER, lane.name());
+        return request;
+    }
+
+    private static ClientHttpResponse respond(HttpStatus status) {
+        MockClientHttpResponse response = new MockClientHttpResponse(new byte[0], status);
+        if (status == HttpStatus.TOO_MANY_REQUESTS) {
+            response.getHeaders().set("Retry-After", "0");
+        }
+        return response;
+    }
+
+    /** An execution that holds the call open until release is counted down */
+    private static ClientHttpRequestExecution held(CountDownLatch release, HttpStatus status) {
+        return (request, body) -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return respond(status);
+        };
+    }
+
+    private double limit() {
+        return registry.get("ml.governor.concurrency.limit").gauge().value();
+    }
+
+    private void awaitInFlight(MLLane lane, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (registry.get("ml.governor.lane.in-flight").tag("lane", lane.name().toLowerCase()).gauge().value() < expected) {
+            assertTrue(System.currentTimeMillis() < deadline, "calls never reached the ML service");
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void batchLaneLeavesReservedSlotsFree() throws Exception {
+        // Limit 4: one slot each is held for INTERACTIVE and RECRUITER, so BATCH gets two
+        MLTrafficGovernor governor = governor(4, 3, 4, 45000, 200, 0);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<ClientHttpResponse>> batch = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            batch.add(callers.submit(() -> governor.intercept(post(MLLane.BATCH), new byte[0], held(release, HttpStatus.OK))));
+        }
+        awaitInFlight(MLLane.BATCH, 2);
+
+        IOException timedOut = assertThrows(IOException.class,
+                () -> governor.intercept(post(MLLane.BATCH), new byte[0], (request, body) -> respond(HttpStatus.OK)));
+        assertTrue(timedOut.getMessage().contains("timed out waiting for capacity"));
+
+        // The reserved slot is still free for an interactive call
+        ClientHttpResponse interactive = governor.intercept(post(MLLane.INTERACTIVE), new byte[0],
+                (request, body) -> respond(HttpStatus.OK));
+        assertEquals(200, interactive.getStatusCode().value());
+
+        release.countDown();
+        for (Future<ClientHttpResponse> call : batch) {
+            assertEquals(200, call.get(5, TimeUnit.SECONDS).getStatusCode().value());
+        }
+    }
+
+    @Test
+    void reservationsSurviveALowLimit() throws Exception {
+        // At the floor of 3, 25% and 10% still round up to a slot each, leaving one for BATCH
+        MLTrafficGovernor governor = governor(3, 3, 3, 45000, 200, 0);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<ClientHttpResponse> first = callers.submit(
+                () -> governor.intercept(post(MLLane.BATCH), new byte[0], held(release, HttpStatus.OK)));
+        awaitInFlight(MLLane.BATCH, 1);
+
+        assertThrows(IOException.class,
+                () -> governor.intercept(post(MLLane.BACKGROUND), new byte[0], (request, body) -> respond(HttpStatus.OK)));
+        assertEquals(200, governor.intercept(post(MLLane.RECRUITER), new byte[0],
+                (request, body) -> respond(HttpStatus.OK)).getStatusCode().value());
+
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void minLimitIsRaisedToCoverReservations() {
+        MLTrafficGovernor governor = governor(1, 1, 16, 45000, 200, 0);
+        assertEquals(3, limit(), 1e-9);
+        assertNotNull(governor);
+    }
+
+    @Test
+    void fastSuccessRaisesTheLimitAdditively() throws IOException {
+        MLTrafficGovernor governor = governor(4, 3, 16, 45000, 200, 0);
+        governor.intercept(post(MLLane.BATCH), new byte[0], (request, body) -> respond(HttpStatus.OK));
+        assertEquals(4.25, limit(), 1e-9);
+    }
+
+    @Test
+    void slowSuccessTrimsTheLimit() throws IOException {
+        MLTrafficGovernor governor = governor(10, 3, 16, 0, 200, 0);
+        governor.intercept(post(MLLane.BATCH), new byte[0], (request, body) -> respond(HttpStatus.OK));
+        assertEquals(9, limit(), 1e-9);
+    }
+
+    @Test
+    void throttleHalvesTheLimit() throws IOException {
+        MLTrafficGovernor governor = governor(8, 3, 16, 45000, 200, 0);
+        ClientHttpResponse response = governor.intercept(post(MLLane.BATCH), new byte[0],
+                (request, body) -> respond(HttpStatus.TOO_MANY_REQUESTS));
+        assertEquals(429, response.getStatusCode().value());
+        assertEquals(4, limit(), 1e-9);
+    }
+
+    @Test
+    void throttleNeverCutsBelowTheFloor() throws IOException {
+        MLTrafficGovernor governor = governor(4, 3, 16, 45000, 200, 0);
+        governor.intercept(post(MLLane.BATCH), new byte[0], (request, body) -> respond(HttpStatus.TOO_MANY_REQUESTS));
+        assertEquals(3, limit(), 1e-9);
+    }
+
+    @Test
+    void throttlesFromOneRoundTripCutTheLimitOnce() throws Exception {
+        MLTrafficGovernor governor = governor(8, 3, 16, 45000, 1000, 0);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<ClientHttpResponse>> calls = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            calls.add(callers.submit(() -> governor.intercept(post(MLLane.BATCH), new byte[0],
+                    held(release, HttpStatus.TOO_MANY_REQUESTS))));
+        }
+        awaitInFlight(MLLane.BATCH, 2);
+        release.countDown();
+        for (Future<ClientHttpResponse> call : calls) {
+            assertEquals(429, call.get(5, TimeUnit.SECONDS).getStatusCode().value());
+        }
+        // Both calls were sent before the first cut, so the second 429 reports the same overload
+        assertEquals(4, limit(), 1e-9);
+    }
+
+    @Test
+    void throttledCallIsRetried() throws IOException {
+        MLTrafficGovernor governor = governor(4, 3, 16, 45000, 200, 2);
+        AtomicInteger attempts = new AtomicInteger();
+        ClientHttpResponse response = governor.intercept(post(MLLane.BATCH), new byte[0], (request, body) ->
+                respond(attempts.getAndIncrement() == 0 ? HttpStatus.TOO_MANY_REQUESTS : HttpStatus.OK));
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void openCircuitFailsFastWithoutCallingTheService() {
+        MLCircuitBreaker breaker = new MLCircuitBreaker(registry, 1, 1, 50, 80, 75000, 30000, 3);
+        breaker.record(true, 0);
+        MLTrafficGovernor governor = governor(breaker, 4, 3, 16, 45000, 200, 0);
+        AtomicInteger attempts = new AtomicInteger();
+        assertThrows(IOException.class, () -> governor.intercept(post(MLLane.INTERACTIVE), new byte[0], (request, body) -> {
+            attempts.incrementAndGet();
+            return respond(HttpStatus.OK);
+        }));
+        assertEquals(0, attempts.get());
+    }
+}
@@ -0,0 +1,106 @@
+package com.smartresume.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AhoCorasickTest {
+
+    /** Matches as "pattern@start-end", in the order they were reported */
+    private static List<String> scan(AhoCorasick automaton, List<String> patterns, String text) {
+        List<String> found = new ArrayList<>();
+        automaton.scan(text.toCharArray(), text.length(),
+                (id, start, end) -> found.add(patterns.get(id) + "@" + start + "-" + end));
+        return found;
+    }
+
+    private static AhoCorasick compile(List<String> patterns) {
+        AhoCorasick.Builder builder = AhoCorasick.builder();
+        for (String pattern : patterns) {
+            builder.add(pattern);
+        }
+        return builder.build();
+    }
+
+    @Test
+    void reportsOverlappingAndNestedPatterns() {
+        List<String> patterns = List.of("he", "she", "his", "hers");
+        AhoCorasick automaton = compile(patterns);
+        assertEquals(4, automaton.patternCount());
+        assertEquals(List.of("she@1-4", "he@2-4", "hers@2-6"), scan(automaton, patterns, "ushers"));
+    }
+
+    @Test
+    void reportsAPrefixPatternInsideALongerOne() {
+        List<String> patterns = List.of("java", "javascript");
+        AhoCorasick automaton = compile(patterns);
+        assertEquals(List.of("java@0-4", "javascript@0-10", "java@15-19"),
+                scan(automaton, patterns, "javascript and java"));
+    }
+
+    @Test
+    void matchesCaseSensitively() {
+        List<String> patterns = List.of("Java");
+        assertEquals(List.of(), scan(compile(patterns), patterns, "java"));
+    }
+
+    @Test
+    void charactersOutsideThePatternsResetTheMatch() {
+        List<String> patterns = List.of("c++", "c#");
+        AhoCorasick automaton = compile(patterns);
+        assertEquals(List.of("c++@0-3", "c#@5-7"), scan(automaton, patterns, "c++é c# cé++"));
+    }
+
+    @Test
+    void scansOnlyTheGivenLength() {
+        AhoCorasick automaton = compile(List.of("abc"));
+        List<Integer> starts = new ArrayList<>();
+        automaton.scan("abcabc".toCharArray(), 5, (id, start, end) -> starts.add(start));
+        assertEquals(List.of(0), starts);
+    }
+
+    @Test
+    void agreesWithANaiveSearch() {
+        Random random = new Random(7);
+        for (int round = 0; round < 50; round++) {
+            List<String> patterns = new ArrayList<>();
+            for (int p = 0; p < 8; p++) {
+                patterns.add(randomString(random, 1 + random.nextInt(4)));
+            }
+            String text = randomString(random, 300);
+
+            // Duplicate patterns get ids of their own, so each copy is expected once per occurrence
+            List<String> expected = new ArrayList<>();
+            for (String pattern : patterns) {
+                for (int i = text.indexOf(pattern); i >= 0; i = text.indexOf(pattern, i + 1)) {
+                    expected.add(pattern + "@" + i + "-" + (i + pattern.length()));
+                }
+            }
+            List<String> found = scan(compile(patterns), patterns, text);
+            Collections.sort(expected);
+            Collections.sort(found);
+            assertEquals(expected, found);
+        }
+    }
+
+    @Test
+    void rejectsEmptyAndNonAsciiPatterns() {
+        AhoCorasick.Builder builder = AhoCorasick.builder();
+        assertThrows(IllegalArgumentException.class, () -> builder.add(""));
+        assertThrows(IllegalArgumentException.class, () -> builder.add("café"));
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder s = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            s.append("abc".charAt(random.nextInt(3)));
+        }
+        return s.toString();
+    }
+}
@@ -0,0 +1,75 @@
+package com.smartresume.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SimilarityMatrixTest {
+
+    private static float[][] unitVectors(Random random, int count, int dimension) {
+        float[][] vectors = new float[count][dimension];
+        for (float[] vector : vectors) {
+            double norm = 0;
+            for (int k = 0; k < dimension; k++) {
+                vector[k] = (float) random.nextGaussian();
+                norm += vector[k] * vector[k];
+            }
+            for (int k = 0; k < dimension; k++) {
+                vector[k] /= (float) Math.sqrt(norm);
+            }
+        }
+        return vectors;
+    }
+
+    @Test
+    void matchesANaiveDotProduct() {
+        // Sizes that are not multiples of the row block, the column tile or the four-column unroll
+        Random random = new Random(3);
+        float[][] rows = unitVectors(random, 37, 384);
+        float[][] columns = unitVectors(random, 133, 384);
+
+        float[][] result = SimilarityMatrix.cosine(rows, columns, ForkJoinPool.commonPool());
+
+        assertEquals(rows.length, result.length);
+        for (int i = 0; i < rows.length; i++) {
+            assertEquals(columns.length, result[i].length);
+            for (int j = 0; j < columns.length; j++) {
+                double expected = 0;
+                for (int k = 0; k < 384; k++) {
+                    expected += (double) rows[i][k] * columns[j][k];
+                }
+                assertEquals(expected, result[i][j], 1e-4, "cell " + i + "," + j);
+            }
+        }
+    }
+
+    @Test
+    void aVectorIsFullySimilarToItself() {
+        float[][] vectors = unitVectors(new Random(5), 6, 16);
+        float[][] result = SimilarityMatrix.cosine(vectors, vectors, ForkJoinPool.commonPool());
+        for (int i = 0; i < vectors.length; i++) {
+            assertEquals(1.0, result[i][i], 1e-5);
+        }
+    }
+
+    @Test
+    void emptyInputsGiveAnEmptyMatrix() {
+        float[][] vectors = unitVectors(new Random(1), 3, 8);
+        assertEquals(0, SimilarityMatrix.cosine(new float[0][], vectors, ForkJoinPool.commonPool()).length);
+        float[][] noColumns = SimilarityMatrix.cosine(vectors, new float[0][], ForkJoinPool.commonPool());
+        assertEquals(3, noColumns.length);
+        assertEquals(0, noColumns[0].length);
+    }
+
+    @Test
+    void rejectsMixedDimensions() {
+        float[][] rows = {new float[]{1, 0, 0}};
+        float[][] columns = {new float[]{1, 0, 0}, new float[]{0, 1}};
+        assertThrows(IllegalArgumentException.class,
+                () -> SimilarityMatrix.cosine(rows, columns, ForkJoinPool.commonPool()));
+    }
+}
@@ -0,0 +1,132 @@
+package com.smartresume.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SingleFlightTest {
+
+    private final SingleFlight singleFlight = new SingleFlight();
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdown() {
+        callers.shutdownNow();
+    }
+
+    private void awaitShared(long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (singleFlight.sharedCount() < expected) {
+            assertTrue(System.currentTimeMillis() < deadline, "callers never joined the in-flight call");
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void concurrentCallersShareOneCallButGetTheirOwnCopy() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> result = List.of("java", "spring");
+        List<Future<List<String>>> futures = new ArrayList<>();
+        futures.add(callers.submit(() -> singleFlight.execute("key", () -> {
+            calls.incrementAndGet();
+            await(release);
+            return result;
+        }, ArrayList::new)));
+        // The leader is in flight once the key is registered
+        while (singleFlight.inFlightCount() == 0) {
+            Thread.sleep(1);
+        }
+        for (int i = 0; i < 4; i++) {
+            futures.add(callers.submit(() -> singleFlight.execute("key", () -> {
+                calls.incrementAndGet();
+                return List.of("other");
+            }, ArrayList::new)));
+        }
+        awaitShared(4);
+        release.countDown();
+
+        Set<List<String>> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Future<List<String>> future : futures) {
+            List<String> copy = future.get(5, TimeUnit.SECONDS);
+            assertEquals(result, copy);
+            assertNotSame(result, copy);
+            instances.add(copy);
+        }
+        assertEquals(futures.size(), instances.size());
+        assertEquals(1, calls.get());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void waitingCallersGetTheLeadersException() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("ML service down");
+        Future<Object> leader = callers.submit(() -> singleFlight.execute("key", () -> {
+            await(release);
+            throw failure;
+        }));
+        while (singleFlight.inFlightCount() == 0) {
+            Thread.sleep(1);
+        }
+        Future<Object> follower = callers.submit(() -> singleFlight.execute("key", Object::new));
+        awaitShared(1);
+        release.countDown();
+
+        ExecutionException leaderError = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        ExecutionException followerError = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertSame(failure, leaderError.getCause());
+        assertSame(failure, followerError.getCause());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void nothingIsRememberedAfterACallCompletes() {
+        AtomicInteger calls = new AtomicInteger();
+        int first = singleFlight.execute("key", calls::incrementAndGet);
+        int second = singleFlight.execute("key", calls::incrementAndGet);
+        assertEquals(1, first);
+        assertEquals(2, second);
+
+        assertThrows(IllegalStateException.class, () -> singleFlight.execute("key", () -> {
+            throw new IllegalStateException("boom");
+        }));
+        int afterFailure = singleFlight.execute("key", calls::incrementAndGet);
+        assertEquals(3, afterFailure);
+        assertEquals(0, singleFlight.sharedCount());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void differentKeysAreNotCoalesced() {
+        String result = singleFlight.execute("outer", () -> "outer+" + singleFlight.execute("inner", () -> "inner"));
+        assertEquals("outer+inner", result);
+        assertEquals(0, singleFlight.sharedCount());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.smartresume.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TopKTest {
+
+    @Test
+    void keepsTheHighestScoresBestFirst() {
+        TopK<String> top = new TopK<>(3);
+        top.offer(5, "five");
+        top.offer(1, "one");
+        top.offer(9, "nine");
+        top.offer(3, "three");
+        top.offer(7, "seven");
+
+        assertEquals(3, top.size());
+        assertEquals(List.of("nine", "seven", "five"), top.top(3));
+        assertEquals(List.of("nine"), top.top(1));
+    }
+
+    @Test
+    void thresholdIsTheLowestKeptScoreOnceFull() {
+        TopK<String> top = new TopK<>(2);
+        assertEquals(Double.NEGATIVE_INFINITY, top.threshold());
+        top.offer(4, "a");
+        assertEquals(Double.NEGATIVE_INFINITY, top.threshold());
+        top.offer(6, "b");
+        assertEquals(4, top.threshold());
+        top.offer(5, "c");
+        assertEquals(5, top.threshold());
+    }
+
+    @Test
+    void offerReportsWhetherTheItemWasKept() {
+        TopK<String> top = new TopK<>(2);
+        assertTrue(top.offer(5, "a"));
+        assertTrue(top.offer(7, "b"));
+        assertFalse(top.offer(4, "c"));
+        assertTrue(top.offer(6, "d"));
+        assertEquals(List.of("b", "d"), top.top(2));
+    }
+
+    @Test
+    void equalScoresKeepTheItemSeenFirst() {
+        TopK<String> top = new TopK<>(2);
+        top.offer(1, "a");
+        top.offer(1, "b");
+        assertFalse(top.offer(1, "c"));
+        assertEquals(List.of("a", "b"), top.top(2));
+    }
+
+    @Test
+    void topLeavesTheHeapUnchanged() {
+        TopK<Integer> top = new TopK<>(4);
+        for (int i = 0; i < 3; i++) {
+            top.offer(i, i);
+        }
+        assertEquals(List.of(2, 1, 0), top.top(10));
+        assertEquals(List.of(2, 1, 0), top.top(10));
+        assertEquals(3, top.size());
+
+        top.offer(10, 10);
+        top.offer(-1, -1);
+        assertEquals(List.of(10, 2, 1, 0), top.top(4));
+    }
+
+    @Test
+    void matchesAFullSort() {
+        Random random = new Random(42);
+        TopK<Double> top = new TopK<>(25);
+        List<Double> all = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            double score = random.nextDouble();
+            all.add(score);
+            top.offer(score, score);
+        }
+        all.sort(Comparator.reverseOrder());
+        assertEquals(all.subList(0, 25), top.top(25));
+    }
+
+    @Test
+    void rejectsAnEmptyCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new TopK<String>(0));
+    }
+}